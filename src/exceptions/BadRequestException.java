@@ -0,0 +1,10 @@
+package exceptions;
+
+/**
+ * Некорректный запрос клиента. Сообщение предназначено клиенту и уходит в ответе 400.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
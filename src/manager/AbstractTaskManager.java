@@ -0,0 +1,286 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskViews;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Общая часть менеджеров задач в памяти: история и частота просмотров, расписание по времени начала
+ * и постраничные выборки. Хранилища задач, выдача id и синхронизация записей остаются в наследниках.
+ * <p>
+ * История, которая не объявляет себя потокобезопасной, вызывается под её монитором: для однопоточного
+ * менеджера это свободная блокировка, для многопоточного — единственный способ работать с такой историей.
+ */
+abstract class AbstractTaskManager implements TaskManager {
+
+    static final Comparator<Task> PRIORITY_ORDER = Comparator.comparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+
+    final HistoryManager historyManager;
+
+    final ViewFrequencyTracker viewFrequency;
+
+    final IntervalIndex intervalIndex = new IntervalIndex();
+
+    // расписание раздельно по типам: задачи и подзадачи со временем начала в порядке PRIORITY_ORDER.
+    // Общий порядок получается слиянием двух деревьев, эпики в расписание не входят
+    private final NavigableSet<Task> taskSchedule;
+
+    private final NavigableSet<Task> subtaskSchedule;
+
+    AbstractTaskManager(HistoryManager historyManager, ViewFrequencyTracker viewFrequency,
+                        Supplier<NavigableSet<Task>> scheduleFactory) {
+        this.historyManager = historyManager;
+        this.viewFrequency = viewFrequency;
+        this.taskSchedule = scheduleFactory.get();
+        this.subtaskSchedule = scheduleFactory.get();
+    }
+
+    /**
+     * Расписание задач типа type; у эпиков расписания нет.
+     */
+    NavigableSet<Task> scheduleOf(TaskType type) {
+        switch (type) {
+            case TASK:
+                return taskSchedule;
+            case SUBTASK:
+                return subtaskSchedule;
+            default:
+                return Collections.emptyNavigableSet();
+        }
+    }
+
+    protected void log(String message) {
+        String time = java.time.LocalTime.now().toString();
+        System.out.println("[" + time + "] [TASK MANAGER] " + message);
+    }
+
+    /**
+     * Задача, эпик или подзадача с этим id, или null.
+     */
+    abstract Task findAny(int id);
+
+    abstract Epic findEpic(int id);
+
+    /**
+     * Изменение эпика с обновлением индекса статусов и версии.
+     */
+    abstract void changeEpic(Epic epic, Consumer<Epic> change);
+
+    /**
+     * Привязка новой или изменённой подзадачи к эпику epic; при переносе она отвязывается от прежнего эпика.
+     */
+    void attachSubtask(Subtask oldSubtask, Subtask subtask, Epic epic) {
+        if (oldSubtask == null) {
+            changeEpic(epic, e -> e.addSubtask(subtask));
+        } else if (oldSubtask.getEpicId() == subtask.getEpicId()) {
+            changeEpic(epic, e -> e.replaceSubtask(oldSubtask, subtask));
+        } else {
+            Epic oldEpic = findEpic(oldSubtask.getEpicId());
+            if (oldEpic != null) {
+                changeEpic(oldEpic, e -> e.removeSubtask(oldSubtask));
+            }
+            changeEpic(epic, e -> e.addSubtask(subtask));
+        }
+    }
+
+    /**
+     * Задача в виде, который можно отдать наружу. Эпики, которые меняются на месте, наследник может копировать.
+     */
+    Task readable(Task task) {
+        return task;
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return getTaskById(id, null);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return getEpicById(id, null);
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        return getSubtaskById(id, null);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(null);
+    }
+
+    @Override
+    public List<Task> getHistory(String clientId) {
+        if (historyManager.isThreadSafe()) {
+            return historyManager.getHistory(clientId);
+        }
+        synchronized (historyManager) {
+            return historyManager.getHistory(clientId);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(String clientId, int afterId, int limit) {
+        checkLimit(limit);
+        if (historyManager.isThreadSafe()) {
+            return historyManager.getHistory(clientId, afterId, limit);
+        }
+        synchronized (historyManager) {
+            return historyManager.getHistory(clientId, afterId, limit);
+        }
+    }
+
+    /**
+     * Просмотр задачи через getXById; clientId равен null для просмотра без клиента.
+     * Наследники могут дополнительно его сохранять.
+     */
+    protected void recordView(Task task, String clientId) {
+        viewFrequency.record(task.getId());
+        if (historyManager.isThreadSafe()) {
+            historyManager.add(task, clientId);
+            return;
+        }
+        synchronized (historyManager) {
+            historyManager.add(task, clientId);
+        }
+    }
+
+    /**
+     * Убирает удалённую задачу из истории и из списка частых; через этот метод проходят все удаления
+     * и очистки менеджеров.
+     */
+    void removeFromHistory(int id) {
+        viewFrequency.remove(id);
+        if (historyManager.isThreadSafe()) {
+            historyManager.remove(id);
+            return;
+        }
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    @Override
+    public List<TaskViews> getTopViewed(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k должно быть положительным");
+        }
+        List<TaskViews> top = new ArrayList<>();
+        // задачу могут удалить между выборкой и поиском, тогда она пропускается
+        for (ViewFrequencyTracker.ViewCount count : viewFrequency.top(k)) {
+            Task task = findAny(count.getTaskId());
+            if (task != null) {
+                top.add(new TaskViews(readable(task), count.getViews()));
+                if (top.size() == k) {
+                    break;
+                }
+            }
+        }
+        return top;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return page(merged(taskSchedule, subtaskSchedule), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return page(merged(window(taskSchedule, from, to), window(subtaskSchedule, from, to)), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(TaskType type, LocalDateTime from, LocalDateTime to) {
+        return new ArrayList<>(window(scheduleOf(type), from, to));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime after, int afterId, int limit) {
+        checkLimit(limit);
+        if (after == null) {
+            return page(merged(taskSchedule, subtaskSchedule), limit);
+        }
+        Task probe = new Task(afterId, null, null, null, null, after);
+        return page(merged(taskSchedule.tailSet(probe, false), subtaskSchedule.tailSet(probe, false)), limit);
+    }
+
+    // задачи расписания, которые начинаются в [from, to); при from позже to окно пустое
+    private static NavigableSet<Task> window(NavigableSet<Task> schedule, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableSet<Task> window = schedule;
+        if (from != null) {
+            window = window.tailSet(probe(from), true);
+        }
+        if (to != null) {
+            window = window.headSet(probe(to), false);
+        }
+        return window;
+    }
+
+    // слияние двух упорядоченных по PRIORITY_ORDER наборов за один проход
+    private static Iterator<Task> merged(Iterable<Task> first, Iterable<Task> second) {
+        Iterator<Task> left = first.iterator();
+        Iterator<Task> right = second.iterator();
+        return new Iterator<>() {
+            private Task nextLeft = left.hasNext() ? left.next() : null;
+            private Task nextRight = right.hasNext() ? right.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task result;
+                if (nextRight == null || (nextLeft != null && PRIORITY_ORDER.compare(nextLeft, nextRight) <= 0)) {
+                    result = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    result = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit должен быть положительным");
+        }
+    }
+
+    static <T> List<T> page(Iterator<T> source, int limit) {
+        List<T> page = new ArrayList<>();
+        while (page.size() < limit && source.hasNext()) {
+            page.add(source.next());
+        }
+        return page;
+    }
+
+    private static Task probe(LocalDateTime startTime) {
+        return new Task(Integer.MIN_VALUE, null, null, null, null, startTime);
+    }
+}
@@ -0,0 +1,183 @@
+package manager;
+
+import tasks.Task;
+import util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * История на массивах: связи prev/next хранятся в параллельных int[] по номеру ячейки, id задачи
+ * сопоставляется ячейке через {@link IntIntHashMap}. Освобождённые ячейки переиспользуются, поэтому
+ * повторный просмотр — это только перестановка связей. Копия задачи создаётся заново, только если
+ * задача изменилась с прошлого просмотра. Ёмкость ограничивается так же, как в {@link InMemoryHistoryManager}.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+
+    private static final int NIL = -1;
+    private static final int INITIAL_SLOTS = 16;
+
+    private final int capacity;
+    private final IntIntHashMap slotsById = new IntIntHashMap();
+
+    private int[] ids;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+
+    private int head = NIL;
+    private int tail = NIL;
+    // цепочка свободных ячеек идёт через next
+    private int free = NIL;
+    // ячейки с номером от used ещё ни разу не выдавались
+    private int used;
+    private int size;
+
+    public ArrayHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ArrayHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+        int slots = Math.min(capacity, INITIAL_SLOTS);
+        ids = new int[slots];
+        tasks = new Task[slots];
+        prev = new int[slots];
+        next = new int[slots];
+    }
+
+    @Override
+    public void add(Task task) {
+        addEvicting(task);
+    }
+
+    /**
+     * Добавляет просмотр и возвращает задачу, вытесненную из-за ёмкости, или null, если никто не вытеснен.
+     */
+    Task addEvicting(Task task) {
+        Task evicted = null;
+        int slot = slotsById.getOrDefault(task.getId(), NIL);
+        if (slot != NIL) {
+            unlink(slot);
+            if (!sameState(tasks[slot], task)) {
+                tasks[slot] = new Task(task);
+            }
+        } else {
+            if (size == capacity) {
+                slot = head;
+                unlink(slot);
+                slotsById.remove(ids[slot]);
+                evicted = tasks[slot];
+            } else {
+                slot = allocate();
+                size++;
+            }
+            ids[slot] = task.getId();
+            tasks[slot] = new Task(task);
+            slotsById.put(task.getId(), slot);
+        }
+        linkLast(slot);
+        return evicted;
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotsById.getOrDefault(id, NIL);
+        if (slot == NIL) {
+            return;
+        }
+        slotsById.remove(id);
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    @Override
+    public List<Task> getHistory(String clientId, int afterId, int limit) {
+        int slot = head;
+        if (afterId != 0) {
+            int after = slotsById.getOrDefault(afterId, NIL);
+            if (after == NIL) {
+                throw new IllegalArgumentException("Задачи " + afterId + " нет в истории");
+            }
+            slot = next[after];
+        }
+        List<Task> page = new ArrayList<>();
+        for (; slot != NIL && page.size() < limit; slot = next[slot]) {
+            page.add(tasks[slot]);
+        }
+        return page;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int allocate() {
+        if (free != NIL) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == ids.length) {
+            int length = (int) Math.min(capacity, ids.length * 2L);
+            ids = Arrays.copyOf(ids, length);
+            tasks = Arrays.copyOf(tasks, length);
+            prev = Arrays.copyOf(prev, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return used++;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+
+    private static boolean sameState(Task stored, Task task) {
+        return Objects.equals(stored.getName(), task.getName())
+                && Objects.equals(stored.getDescription(), task.getDescription())
+                && stored.getStatus() == task.getStatus()
+                && Objects.equals(stored.getDuration(), task.getDuration())
+                && Objects.equals(stored.getStartTime(), task.getStartTime());
+    }
+}
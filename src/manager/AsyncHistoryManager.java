@@ -0,0 +1,210 @@
+package manager;
+
+import tasks.Task;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * История, запись в которую не блокирует читающие потоки.
+ * <p>
+ * Просмотры и удаления публикуются в кольцевой буфер без блокировок (много писателей, один читатель).
+ * Единственный поток-потребитель забирает события пачками, применяет их к обычной истории и после каждой
+ * пачки публикует неизменяемый снимок, который и возвращает {@link #getHistory()}. Если буфер переполнен,
+ * просмотр отбрасывается, а удаление ждёт свободного места, чтобы удалённая задача не осталась в истории.
+ * <p>
+ * Без событий потребитель спит и не тратит процессор; будит его первый писатель, заставший его спящим.
+ * Экземпляр создаётся через {@link #start(HistoryManager)}: поток запускается после конструктора,
+ * когда объект уже полностью построен.
+ */
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final HistoryManager delegate;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Object[] events;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder droppedViews = new LongAdder();
+    private final Thread consumer;
+    // потребитель собирается уснуть или спит; сбрасывает флаг тот, кто его будит
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    // позиция чтения, меняет только потребитель
+    private long head;
+    private volatile long appliedPosition;
+    private volatile List<Task> snapshot = List.of();
+    private volatile boolean closed;
+
+    public static AsyncHistoryManager start(HistoryManager delegate) {
+        return start(delegate, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Создаёт историю с буфером на bufferSize событий (степень двойки) и запускает поток-потребитель.
+     */
+    public static AsyncHistoryManager start(HistoryManager delegate, int bufferSize) {
+        AsyncHistoryManager history = new AsyncHistoryManager(delegate, bufferSize);
+        history.consumer.start();
+        return history;
+    }
+
+    private AsyncHistoryManager(HistoryManager delegate, int bufferSize) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Размер буфера истории должен быть степенью двойки");
+        }
+        this.delegate = delegate;
+        this.mask = bufferSize - 1;
+        this.sequences = new AtomicLongArray(bufferSize);
+        this.events = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.consumer = new Thread(this::run, "task-manager-history");
+        this.consumer.setDaemon(true);
+    }
+
+    @Override
+    public void add(Task task) {
+        checkOpen();
+        if (offer(new Task(task))) {
+            wakeConsumer();
+        } else {
+            droppedViews.increment();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        checkOpen();
+        Integer event = id;
+        while (!offer(event)) {
+            LockSupport.unpark(consumer);
+            Thread.onSpinWait();
+        }
+        wakeConsumer();
+    }
+
+    /**
+     * Последний опубликованный снимок истории; просмотры, ещё не забранные потребителем, в него не входят.
+     */
+    @Override
+    public List<Task> getHistory() {
+        return snapshot;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Ждёт, пока потребитель применит все события, опубликованные до вызова.
+     */
+    public void awaitApplied() {
+        long target = tail.get();
+        while (appliedPosition < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            Thread.yield();
+        }
+    }
+
+    public long getDroppedViews() {
+        return droppedViews.sum();
+    }
+
+    /**
+     * Применяет оставшиеся события и останавливает поток-потребитель.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // запись события в sequences и чтение idle — обе volatile, поэтому либо писатель увидит спящего
+    // потребителя, либо потребитель перед сном увидит событие
+    private void wakeConsumer() {
+        if (idle.get() && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("История уже закрыта");
+        }
+    }
+
+    private boolean offer(Object event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index] = event;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    private Object poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        Object event = events[index];
+        events[index] = null;
+        sequences.set(index, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    private boolean hasEvent() {
+        return sequences.get((int) head & mask) == head + 1;
+    }
+
+    private void run() {
+        while (true) {
+            int applied = 0;
+            Object event;
+            while (applied < MAX_BATCH_SIZE && (event = poll()) != null) {
+                if (event instanceof Task) {
+                    delegate.add((Task) event);
+                } else {
+                    delegate.remove((Integer) event);
+                }
+                applied++;
+            }
+            if (applied > 0) {
+                snapshot = List.copyOf(delegate.getHistory());
+                appliedPosition = head;
+            } else if (closed && tail.get() == head) {
+                return;
+            } else {
+                idle.set(true);
+                if (!hasEvent() && !closed) {
+                    LockSupport.park(this);
+                }
+                idle.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package manager;
+
+import exceptions.NotFoundException;
+import exceptions.TasksOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+import util.IntHashSet;
+import util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+/**
+ * Проверка пакета операций до того, как менеджер применит хотя бы одну из них.
+ * <p>
+ * Операции проигрываются поверх текущего состояния без его изменения: новые задачи сразу получают id,
+ * итоговые версии затронутых задач копятся в planned, удалённые id — в deleted. Подзадача удалённого эпика
+ * считается удалённой вместе с ним. Пересечения по времени проверяются один раз в конце: интервалы пакета
+ * сортируются и сливаются с нужным участком индекса расписания в один проход, в котором пропускаются
+ * интервалы, которые пакет заменяет или удаляет.
+ */
+class BatchPlan {
+
+    private final IntFunction<Task> existing;
+    private final IntervalIndex intervalIndex;
+    private final IntSupplier ids;
+
+    private final IntObjectHashMap<Task> planned = new IntObjectHashMap<>();
+    private final IntHashSet deleted = new IntHashSet();
+
+    BatchPlan(IntFunction<Task> existing, IntervalIndex intervalIndex, IntSupplier ids) {
+        this.existing = existing;
+        this.intervalIndex = intervalIndex;
+        this.ids = ids;
+    }
+
+    /**
+     * Возвращает копии задач для применения в порядке операций (null для удаления).
+     * Новые копии уже содержат выданные id.
+     */
+    List<Task> prepare(List<BatchOperation> operations) {
+        List<Task> prepared = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            prepared.add(prepare(operation));
+        }
+        checkOverlaps();
+        return prepared;
+    }
+
+    private Task prepare(BatchOperation operation) {
+        switch (operation.getAction()) {
+            case CREATE:
+                return planCreate(copy(operation.getTask()));
+            case UPDATE:
+                return planUpdate(copy(operation.getTask()));
+            case DELETE:
+                planDelete(operation.getType(), operation.getId());
+                return null;
+            default:
+                throw new IllegalStateException("Неизвестная операция: " + operation.getAction());
+        }
+    }
+
+    private Task planCreate(Task task) {
+        if (task instanceof Subtask) {
+            int epicId = ((Subtask) task).getEpicId();
+            if (!(current(epicId) instanceof Epic)) {
+                throw new NotFoundException("Epic " + epicId + " not found");
+            }
+        }
+        if (task instanceof Epic) {
+            ((Epic) task).clearSubtasks();
+        }
+        task.setId(ids.getAsInt());
+        planned.put(task.getId(), task);
+        return task;
+    }
+
+    // обновлять можно только задачу того же типа, которая есть после уже проигранных операций:
+    // иначе задача заняла бы id подзадачи или эпика, и расписание разошлось бы с индексом интервалов
+    private Task planUpdate(Task task) {
+        Task target = current(task.getId());
+        if (target == null || target.getType() != task.getType()) {
+            throw new NotFoundException(typeName(task.getType()) + " " + task.getId() + " not found");
+        }
+        if (task instanceof Subtask) {
+            int epicId = ((Subtask) task).getEpicId();
+            if (!(current(epicId) instanceof Epic)) {
+                throw new NotFoundException("Epic " + epicId + " not found");
+            }
+        }
+        planned.put(task.getId(), task);
+        return task;
+    }
+
+    private void planDelete(TaskType type, int id) {
+        Task task = current(id);
+        if (task == null || task.getType() != type) {
+            throw new NotFoundException(typeName(type) + " " + id + " not found");
+        }
+        planned.remove(id);
+        deleted.add(id);
+    }
+
+    private void checkOverlaps() {
+        List<Task> scheduled = new ArrayList<>();
+        for (Task task : planned.values()) {
+            if (!(task instanceof Epic) && task.getEndTime() != null && current(task.getId()) != null) {
+                scheduled.add(task);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime));
+
+        IntPredicate released = id -> planned.containsKey(id) || current(id) == null;
+        if (intervalIndex.overlaps(scheduled, released)) {
+            throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
+        }
+    }
+
+    // состояние задачи после уже проигранных операций пакета
+    private Task current(int id) {
+        if (deleted.contains(id)) {
+            return null;
+        }
+        Task task = planned.get(id);
+        if (task == null) {
+            task = existing.apply(id);
+        }
+        if (task instanceof Subtask && !(current(((Subtask) task).getEpicId()) instanceof Epic)) {
+            return null;
+        }
+        return task;
+    }
+
+    private static Task copy(Task task) {
+        if (task instanceof Epic) {
+            return new Epic((Epic) task);
+        } else if (task instanceof Subtask) {
+            return new Subtask((Subtask) task);
+        }
+        return new Task(task);
+    }
+
+    private static String typeName(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return "Epic";
+            case SUBTASK:
+                return "Subtask";
+            default:
+                return "Task";
+        }
+    }
+}
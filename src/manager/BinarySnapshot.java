@@ -0,0 +1,364 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+import tasks.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Двоичный формат снимка.
+ * <p>
+ * Заголовок: магическое число "TKSB" (4 байта), версия (2 байта), зарезервировано (2 байта). Дальше записи
+ * до маркера 0xFF, после него CRC32 всех байт между заголовком и контрольной суммой (4 байта).
+ * Запись: тип (ordinal), id (varint), имя и описание (varint длины + 1, 0 — null, затем UTF-8), статус
+ * (ordinal, 0xFF — null), флаги, длительность в минутах и начало в минутах от эпохи (zigzag varint),
+ * остаток наносекунд внутри минуты, если он есть, и id эпика у подзадачи.
+ * <p>
+ * Журнал при двоичном снимке тоже двоичный: каждая запись — длина (varint), код операции и её данные:
+ * задача в том же виде, что и в снимке, тип (ordinal) и id удаляемой задачи или тип очищаемых задач.
+ * По длине отбрасывается хвост, оборванный сбоем посреди записи.
+ */
+final class BinarySnapshot {
+
+    static final int MAGIC = 0x544B5342;
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int END = 0xFF;
+    private static final int NO_STATUS = 0xFF;
+
+    private static final int HAS_DURATION = 1;
+    private static final int HAS_START = 2;
+    private static final int HAS_START_NANOS = 4;
+
+    private static final int PUT = 1;
+    private static final int DELETE = 2;
+    private static final int CLEAR = 3;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // читаем, пока не наберутся 4 байта или не кончится файл
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла", e);
+        }
+    }
+
+    static byte[] encode(List<? extends Iterable<? extends Task>> groups) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new Writer(bytes)) {
+            for (Iterable<? extends Task> group : groups) {
+                for (Task task : group) {
+                    writer.write(task);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Task> read(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Снимок больше 2 ГБ: " + file.getPath());
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла", e);
+        }
+    }
+
+    static List<Task> read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE + 5 || buffer.getInt(buffer.position()) != MAGIC) {
+            throw new ManagerSaveException("Файл не является двоичным снимком");
+        }
+        int version = buffer.getShort(buffer.position() + 4);
+        if (version != VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия снимка: " + version);
+        }
+        int bodyStart = buffer.position() + HEADER_SIZE;
+        int bodyEnd = buffer.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(bodyStart, bodyEnd - bodyStart));
+        if ((int) crc.getValue() != buffer.getInt(bodyEnd)) {
+            throw new ManagerSaveException("Контрольная сумма снимка не совпадает");
+        }
+
+        ByteBuffer body = buffer.slice(bodyStart, bodyEnd - bodyStart);
+        List<Task> tasks = new ArrayList<>();
+        while (true) {
+            int type = body.get() & 0xFF;
+            if (type == END) {
+                return tasks;
+            }
+            tasks.add(readTask(body, TYPES[type]));
+        }
+    }
+
+    /**
+     * Повтор изменений из журнала; каждый метод возвращает id затронутой задачи или 0.
+     */
+    interface JournalVisitor {
+        int put(Task task);
+
+        int delete(TaskType type, int id);
+
+        int clear(TaskType type);
+    }
+
+    static byte[] putRecord(Task task) {
+        return record(out -> {
+            out.writeByte(PUT);
+            writeTask(out, task);
+        });
+    }
+
+    static byte[] deleteRecord(TaskType type, int id) {
+        return record(out -> {
+            out.writeByte(DELETE);
+            out.writeByte(type.ordinal());
+            writeVarLong(out, id);
+        });
+    }
+
+    static byte[] clearRecord(TaskType type) {
+        return record(out -> {
+            out.writeByte(CLEAR);
+            out.writeByte(type.ordinal());
+        });
+    }
+
+    /**
+     * Проигрывает журнал и возвращает наибольший id из его записей. Оборванная последняя запись пропускается,
+     * а целая по длине запись, тело которой не читается, — это повреждение журнала.
+     */
+    static int readJournal(File file, JournalVisitor visitor) {
+        ByteBuffer in;
+        try {
+            in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала", e);
+        }
+        int maxId = 0;
+        while (in.hasRemaining()) {
+            int offset = in.position();
+            int length;
+            try {
+                length = (int) readVarLong(in);
+            } catch (BufferUnderflowException e) {
+                break; // оборвана длина последней записи
+            }
+            if (length <= 0 || length > in.remaining()) {
+                break;
+            }
+            ByteBuffer entry = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            int operation = entry.get();
+            try {
+                switch (operation) {
+                    case PUT:
+                        maxId = Math.max(maxId, visitor.put(readTask(entry, TYPES[entry.get() & 0xFF])));
+                        break;
+                    case DELETE:
+                        TaskType type = TYPES[entry.get() & 0xFF];
+                        maxId = Math.max(maxId, visitor.delete(type, (int) readVarLong(entry)));
+                        break;
+                    case CLEAR:
+                        visitor.clear(TYPES[entry.get() & 0xFF]);
+                        break;
+                    default:
+                        throw new ManagerSaveException("Повреждённая запись журнала: код " + operation
+                                + ", смещение " + offset);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new ManagerSaveException("Повреждённая запись журнала: смещение " + offset, e);
+            }
+        }
+        return maxId;
+    }
+
+    private static byte[] record(RecordBody body) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        try {
+            body.write(new DataOutputStream(payload));
+            writeVarLong(new DataOutputStream(framed), payload.size());
+            payload.writeTo(framed);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал", e);
+        }
+        return framed.toByteArray();
+    }
+
+    private interface RecordBody {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private static Task readTask(ByteBuffer in, TaskType type) {
+        int id = (int) readVarLong(in);
+        String name = readString(in);
+        String description = readString(in);
+        int statusOrdinal = in.get() & 0xFF;
+        TaskStatus status = statusOrdinal == NO_STATUS ? null : STATUSES[statusOrdinal];
+        int flags = in.get();
+        Duration duration = (flags & HAS_DURATION) != 0 ? Duration.ofMinutes(readZigZag(in)) : null;
+        LocalDateTime startTime = null;
+        if ((flags & HAS_START) != 0) {
+            long epochSecond = readZigZag(in) * 60;
+            long nanos = (flags & HAS_START_NANOS) != 0 ? readVarLong(in) : 0;
+            startTime = LocalDateTime.ofEpochSecond(epochSecond + nanos / 1_000_000_000L,
+                    (int) (nanos % 1_000_000_000L), ZoneOffset.UTC);
+        }
+        switch (type) {
+            case EPIC:
+                return new Epic(id, name, description, status, duration, startTime);
+            case SUBTASK:
+                int epicId = (int) readVarLong(in);
+                return new Subtask(id, name, description, status, duration, startTime, epicId);
+            default:
+                return new Task(id, name, description, status, duration, startTime);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Потоковая запись снимка: заголовок пишется при создании, маркер конца и CRC32 — при закрытии.
+     */
+    static final class Writer implements AutoCloseable {
+        private final OutputStream target;
+        private final CheckedOutputStream checked;
+        private final DataOutputStream out;
+
+        Writer(OutputStream target) throws IOException {
+            this.target = target;
+            DataOutputStream header = new DataOutputStream(target);
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+            header.writeShort(0);
+            this.checked = new CheckedOutputStream(target, new CRC32());
+            this.out = new DataOutputStream(checked);
+        }
+
+        void write(Task task) throws IOException {
+            writeTask(out, task);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(END);
+            out.flush();
+            new DataOutputStream(target).writeInt((int) checked.getChecksum().getValue());
+            target.flush();
+        }
+    }
+
+    private static void writeTask(DataOutput out, Task task) throws IOException {
+        out.writeByte(task.getType().ordinal());
+        writeVarLong(out, task.getId());
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+        out.writeByte(task.getStatus() != null ? task.getStatus().ordinal() : NO_STATUS);
+
+        Duration duration = task.getDuration();
+        LocalDateTime startTime = task.getStartTime();
+        long epochSecond = startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : 0;
+        long nanosOfMinute = startTime != null
+                ? Math.floorMod(epochSecond, 60) * 1_000_000_000L + startTime.getNano() : 0;
+        int flags = (duration != null ? HAS_DURATION : 0)
+                | (startTime != null ? HAS_START : 0)
+                | (nanosOfMinute != 0 ? HAS_START_NANOS : 0);
+        out.writeByte(flags);
+        if (duration != null) {
+            writeZigZag(out, duration.toMinutes());
+        }
+        if (startTime != null) {
+            writeZigZag(out, Math.floorDiv(epochSecond, 60));
+            if (nanosOfMinute != 0) {
+                writeVarLong(out, nanosOfMinute);
+            }
+        }
+        if (task instanceof Subtask) {
+            writeVarLong(out, ((Subtask) task).getEpicId());
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static void writeZigZag(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+}
@@ -0,0 +1,772 @@
+package manager;
+
+import exceptions.NotFoundException;
+import exceptions.TasksOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+import tasks.TaskType;
+import tasks.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+ * <p>
+ * Задачи и подзадачи хранятся неизменяемыми копиями в конкурентных картах, поэтому чтение идёт без блокировок.
+ * Запись блокирует полосу (stripe) по id задачи или id эпика подзадачи; эпики меняются на месте только под
+ * блокировкой своей полосы и отдаются наружу копиями. Проверка пересечений и индекс времени защищены
+ * отдельной блокировкой расписания, которую берут только записи задач со временем.
+ * Порядок захвата: полосы по возрастанию номера, затем расписание, затем история.
+ * <p>
+ * По умолчанию история разделена по клиентам ({@link Managers#getConcurrentHistory()}), и просмотр
+ * блокирует только раздел своего клиента. Историю без потокобезопасности менеджер вызывает под её монитором.
+ */
+public class ConcurrentTaskManager extends AbstractTaskManager {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentSkipListMap<Integer, Task> tasks = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentSkipListMap<Integer, Epic> epics = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentSkipListMap<Integer, Subtask> subtasks = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger idCount = new AtomicInteger(1);
+
+    // номер изменения доски, им же помечается новая версия задачи до публикации
+    private final AtomicLong version = new AtomicLong();
+
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+
+    private final Map<TaskStatus, Set<Integer>> tasksByStatus = newStatusIndex();
+
+    private final Map<TaskStatus, Set<Integer>> epicsByStatus = newStatusIndex();
+
+    private final Map<TaskStatus, Set<Integer>> subtasksByStatus = newStatusIndex();
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ConcurrentTaskManager() {
+        this(Managers.getConcurrentHistory());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this(historyManager, new ViewFrequencyTracker());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager, ViewFrequencyTracker viewFrequency) {
+        super(historyManager, viewFrequency, () -> new ConcurrentSkipListSet<>(PRIORITY_ORDER));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        List<Epic> result = new ArrayList<>();
+        for (Epic epic : epics.values()) {
+            result.add(snapshot(epic));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        checkLimit(limit);
+        return page(tasks.tailMap(afterId, false).values().iterator(), limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        checkLimit(limit);
+        List<Epic> result = new ArrayList<>();
+        for (Epic epic : page(epics.tailMap(afterId, false).values().iterator(), limit)) {
+            result.add(snapshot(epic));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        checkLimit(limit);
+        return page(subtasks.tailMap(afterId, false).values().iterator(), limit);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return collect(tasksByStatus, status, tasks);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        List<Epic> result = new ArrayList<>();
+        for (Epic epic : collect(epicsByStatus, status, epics)) {
+            result.add(snapshot(epic));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return collect(subtasksByStatus, status, subtasks);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id, String clientId) throws NotFoundException {
+        Task task = tasks.get(id);
+        if (task == null) {
+            throw new NotFoundException("Task " + id + " not found");
+        }
+        addToHistory(task, clientId, tasks);
+        return Optional.of(task);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id, String clientId) throws NotFoundException {
+        Epic epic = epics.get(id);
+        if (epic == null) {
+            throw new NotFoundException("Epic " + id + " not found");
+        }
+        Epic epicSnapshot = snapshot(epic);
+        addToHistory(epicSnapshot, clientId, epics);
+        return Optional.of(epicSnapshot);
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id, String clientId) throws NotFoundException {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            throw new NotFoundException("Subtask " + id + " not found");
+        }
+        addToHistory(subtask, clientId, subtasks);
+        return Optional.of(subtask);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) throws NotFoundException {
+        Epic epic = epics.get(id);
+        if (epic == null) {
+            throw new NotFoundException("Epic " + id + " not found");
+        }
+        List<Integer> subtaskIds;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            subtaskIds = new ArrayList<>(epic.getSubtaskIds());
+        } finally {
+            lock.unlock();
+        }
+        return subtaskIds.stream()
+                .map(subtasks::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void createTask(Task task) {
+        Task taskToAdd = new Task(task);
+        insert(taskToAdd, () -> {
+            reindex(tasksByStatus, null, taskToAdd);
+            tasks.put(taskToAdd.getId(), stamped(taskToAdd));
+        });
+        task.setId(taskToAdd.getId());
+        changed();
+        log("Создана задача ID=" + taskToAdd.getId() + ": " + taskToAdd.getName());
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        Task taskToUpdate = new Task(task);
+        ReentrantLock lock = lockFor(taskToUpdate.getId());
+        lock.lock();
+        try {
+            Task oldTask = tasks.get(taskToUpdate.getId());
+            replace(oldTask, taskToUpdate, () -> tasks.put(taskToUpdate.getId(), stamped(taskToUpdate)));
+            reindex(tasksByStatus, oldTask, taskToUpdate);
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        log("Обновлена задача ID=" + taskToUpdate.getId() + ": " + taskToUpdate.getName());
+    }
+
+    @Override
+    public void deleteTask(int id) throws NotFoundException {
+        Task task;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            task = tasks.remove(id);
+            if (task == null) {
+                throw new NotFoundException("Task " + id + " not found");
+            }
+            reindex(tasksByStatus, task, null);
+            unschedule(List.of(task));
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        removeFromHistory(id);
+        log("Удалена задача ID=" + id + ": " + task.getName());
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        Epic epicToAdd = new Epic(epic);
+        int id = idCount.getAndIncrement();
+        epicToAdd.setId(id);
+        epic.setId(id);
+        epicToAdd.clearSubtasks();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            epics.put(id, stamped(epicToAdd));
+            reindex(epicsByStatus, null, epicToAdd);
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        log("Создан эпик ID=" + epicToAdd.getId() + ": " + epicToAdd.getName());
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            putEpic(epic);
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        log("Обновлён эпик ID=" + epic.getId() + ": " + epic.getName());
+    }
+
+    @Override
+    public void deleteEpic(int id) throws NotFoundException {
+        Epic epic;
+        List<Integer> subtaskIds;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            epic = epics.remove(id);
+            if (epic == null) {
+                throw new NotFoundException("Epic " + id + " not found");
+            }
+            reindex(epicsByStatus, epic, null);
+            subtaskIds = new ArrayList<>(epic.getSubtaskIds());
+            removeSubtasks(subtaskIds);
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        subtaskIds.forEach(this::removeFromHistory);
+        removeFromHistory(id);
+        log("Удалён эпик ID=" + id + ": " + epic.getName());
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) throws NotFoundException {
+        int epicId = subtask.getEpicId();
+        Subtask subtaskToAdd = new Subtask(subtask);
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                throw new NotFoundException("Epic " + epicId + " not found");
+            }
+            insert(subtaskToAdd, () -> {
+                reindex(subtasksByStatus, null, subtaskToAdd);
+                subtasks.put(subtaskToAdd.getId(), stamped(subtaskToAdd));
+            });
+            changeEpic(epic, e -> e.addSubtask(subtaskToAdd));
+        } finally {
+            lock.unlock();
+        }
+        subtask.setId(subtaskToAdd.getId());
+        changed();
+        log("Создана подзадача ID=" + subtaskToAdd.getId() + ": " + subtaskToAdd.getName());
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        Subtask subtaskToUpdate = new Subtask(subtask);
+        int id = subtaskToUpdate.getId();
+        int epicId = subtaskToUpdate.getEpicId();
+        while (true) {
+            Subtask oldSubtask = subtasks.get(id);
+            int oldEpicId = oldSubtask != null ? oldSubtask.getEpicId() : epicId;
+            lockBoth(oldEpicId, epicId);
+            try {
+                if (subtasks.get(id) != oldSubtask) {
+                    continue;
+                }
+                Epic epic = epics.get(epicId);
+                if (epic == null) {
+                    throw new NotFoundException("Epic " + epicId + " not found");
+                }
+                replace(oldSubtask, subtaskToUpdate, () -> subtasks.put(id, stamped(subtaskToUpdate)));
+                reindex(subtasksByStatus, oldSubtask, subtaskToUpdate);
+                attachSubtask(oldSubtask, subtaskToUpdate, epic);
+                changed();
+                return;
+            } finally {
+                unlockBoth(oldEpicId, epicId);
+            }
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) throws NotFoundException {
+        Subtask subtask;
+        while (true) {
+            subtask = subtasks.get(id);
+            if (subtask == null) {
+                throw new NotFoundException("Subtask " + id + " not found");
+            }
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            try {
+                if (subtasks.get(id) != subtask) {
+                    continue;
+                }
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null) {
+                    Subtask removed = subtask;
+                    changeEpic(epic, e -> e.removeSubtask(removed));
+                }
+                removeSubtasks(List.of(id));
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+        changed();
+        removeFromHistory(id);
+        log("Удалена подзадача ID=" + id + ": " + subtask.getName());
+    }
+
+    @Override
+    public void removeAllTasks() {
+        for (Integer id : tasks.keySet()) {
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                Task task = tasks.remove(id);
+                if (task == null) {
+                    continue;
+                }
+                reindex(tasksByStatus, task, null);
+                unschedule(List.of(task));
+            } finally {
+                lock.unlock();
+            }
+            removeFromHistory(id);
+        }
+        changed();
+    }
+
+    @Override
+    public void removeAllEpics() {
+        for (Integer id : epics.keySet()) {
+            try {
+                deleteEpic(id);
+            } catch (NotFoundException e) {
+                // эпик уже удалён параллельным запросом
+            }
+        }
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        for (Integer epicId : epics.keySet()) {
+            List<Integer> subtaskIds;
+            ReentrantLock lock = lockFor(epicId);
+            lock.lock();
+            try {
+                Epic epic = epics.get(epicId);
+                if (epic == null) {
+                    continue;
+                }
+                subtaskIds = new ArrayList<>(epic.getSubtaskIds());
+                removeSubtasks(subtaskIds);
+                changeEpic(epic, Epic::clearSubtasks);
+            } finally {
+                lock.unlock();
+            }
+            subtaskIds.forEach(this::removeFromHistory);
+        }
+        changed();
+    }
+
+    /**
+     * Пакет применяется под всеми полосами и блокировкой расписания: промежуточные состояния внутри пакета
+     * могут пересекаться по времени, поэтому параллельные записи не должны их видеть.
+     * <p>
+     * План выдаёт id из локального счётчика, а idCount сдвигается только после успешной проверки, поэтому
+     * отклонённый пакет номеров не тратит. Эпики получают id без блокировок; если такой эпик успел взять
+     * номер во время планирования, пакет планируется заново.
+     */
+    @Override
+    public void applyBatch(List<BatchOperation> operations) {
+        List<Integer> removedIds = new ArrayList<>();
+        lockAll();
+        scheduleLock.lock();
+        try {
+            List<Task> prepared;
+            while (true) {
+                int firstId = idCount.get();
+                int[] nextId = {firstId};
+                prepared = new BatchPlan(this::findAny, intervalIndex, () -> nextId[0]++).prepare(operations);
+                if (idCount.compareAndSet(firstId, nextId[0])) {
+                    break;
+                }
+            }
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                Task task = prepared.get(i);
+                switch (operation.getAction()) {
+                    case CREATE:
+                        operation.getTask().setId(task.getId());
+                        put(task);
+                        break;
+                    case UPDATE:
+                        put(task);
+                        break;
+                    case DELETE:
+                        remove(operation.getType(), operation.getId(), removedIds);
+                        break;
+                }
+            }
+        } finally {
+            scheduleLock.unlock();
+            unlockAll();
+        }
+        changed();
+        removedIds.forEach(this::removeFromHistory);
+        log("Применён пакет из " + operations.size() + " операций");
+    }
+
+    // вызывается под всеми полосами и блокировкой расписания, пересечения уже проверены BatchPlan
+    private void put(Task task) {
+        if (task instanceof Epic) {
+            putEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            Subtask subtask = (Subtask) task;
+            Subtask oldSubtask = subtasks.get(subtask.getId());
+            if (oldSubtask != null) {
+                unscheduleLocked(oldSubtask);
+            }
+            subtasks.put(subtask.getId(), stamped(subtask));
+            reindex(subtasksByStatus, oldSubtask, subtask);
+            attachSubtask(oldSubtask, subtask, epics.get(subtask.getEpicId()));
+            schedule(subtask);
+        } else {
+            Task oldTask = tasks.get(task.getId());
+            if (oldTask != null) {
+                unscheduleLocked(oldTask);
+            }
+            tasks.put(task.getId(), stamped(task));
+            reindex(tasksByStatus, oldTask, task);
+            schedule(task);
+        }
+    }
+
+    private void remove(TaskType type, int id, List<Integer> removedIds) {
+        switch (type) {
+            case TASK:
+                Task task = tasks.remove(id);
+                reindex(tasksByStatus, task, null);
+                unscheduleLocked(task);
+                break;
+            case EPIC:
+                Epic epic = epics.remove(id);
+                reindex(epicsByStatus, epic, null);
+                List<Integer> subtaskIds = new ArrayList<>(epic.getSubtaskIds());
+                removeSubtasks(subtaskIds);
+                removedIds.addAll(subtaskIds);
+                break;
+            case SUBTASK:
+                Subtask subtask = subtasks.get(id);
+                Epic subtaskEpic = epics.get(subtask.getEpicId());
+                if (subtaskEpic != null) {
+                    changeEpic(subtaskEpic, e -> e.removeSubtask(subtask));
+                }
+                removeSubtasks(List.of(id));
+                break;
+        }
+        removedIds.add(id);
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                        int limit) {
+        scheduleLock.lock();
+        try {
+            return intervalIndex.freeSlots(duration, notBefore, notAfter, limit);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    Task readable(Task task) {
+        return task instanceof Epic ? snapshot((Epic) task) : task;
+    }
+
+    // под полосой копируются только поля и id подзадач: агрегаты эпика читателю не нужны
+    private Epic snapshot(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            return Epic.readOnlyCopy(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // просмотр пишется без блокировки полосы, и удаление могло почистить историю между чтением задачи
+    // и записью просмотра; тогда задачи уже нет в карте, и просмотр убирается повторно
+    private void addToHistory(Task task, String clientId, Map<Integer, ? extends Task> source) {
+        recordView(task, clientId);
+        if (!source.containsKey(task.getId())) {
+            removeFromHistory(task.getId());
+        }
+    }
+
+    // id выдаётся только после проверки пересечений: отказ не тратит номер и не меняет задачу клиента.
+    // Пока задача не опубликована в карте, её id никто не знает, поэтому полосу по нему брать не нужно.
+    private void insert(Task task, Runnable store) {
+        if (task.getStartTime() == null) {
+            task.setId(idCount.getAndIncrement());
+            store.run();
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            if (intervalIndex.overlapsAny(task)) {
+                throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
+            }
+            task.setId(idCount.getAndIncrement());
+            store.run();
+            schedule(task);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void replace(Task oldTask, Task newTask, Runnable store) {
+        boolean timed = newTask.getStartTime() != null || (oldTask != null && oldTask.getStartTime() != null);
+        if (!timed) {
+            store.run();
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            checkOverlaps(newTask);
+            if (oldTask != null) {
+                unscheduleLocked(oldTask);
+            }
+            store.run();
+            schedule(newTask);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void putEpic(Epic epic) {
+        Epic epicToUpdate = epics.get(epic.getId());
+        if (epicToUpdate != null) {
+            epicToUpdate.setName(epic.getName());
+            epicToUpdate.setDescription(epic.getDescription());
+            stamped(epicToUpdate);
+        } else {
+            epicToUpdate = new Epic(epic);
+            epicToUpdate.clearSubtasks();
+            epics.put(epicToUpdate.getId(), stamped(epicToUpdate));
+            reindex(epicsByStatus, null, epicToUpdate);
+        }
+    }
+
+    @Override
+    Task findAny(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
+    private void removeSubtasks(List<Integer> subtaskIds) {
+        List<Task> removed = new ArrayList<>();
+        for (Integer subtaskId : subtaskIds) {
+            Subtask subtask = subtasks.remove(subtaskId);
+            if (subtask != null) {
+                reindex(subtasksByStatus, subtask, null);
+                removed.add(subtask);
+            }
+        }
+        unschedule(removed);
+    }
+
+    private void checkOverlaps(Task task) {
+        if (intervalIndex.overlaps(task)) {
+            throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
+        }
+    }
+
+    private void schedule(Task task) {
+        if (task.getStartTime() != null) {
+            scheduleOf(task.getType()).add(task);
+            intervalIndex.add(task);
+        }
+    }
+
+    private void unschedule(List<? extends Task> removed) {
+        if (removed.stream().allMatch(task -> task.getStartTime() == null)) {
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            removed.forEach(this::unscheduleLocked);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void unscheduleLocked(Task task) {
+        if (task.getStartTime() != null) {
+            scheduleOf(task.getType()).remove(task);
+            intervalIndex.remove(task.getId());
+        }
+    }
+
+    @Override
+    Epic findEpic(int id) {
+        return epics.get(id);
+    }
+
+    @Override
+    void changeEpic(Epic epic, Consumer<Epic> change) {
+        TaskStatus oldStatus = epic.getStatus();
+        change.accept(epic);
+        if (oldStatus != epic.getStatus()) {
+            if (oldStatus != null) {
+                epicsByStatus.get(oldStatus).remove(epic.getId());
+            }
+            epicsByStatus.get(epic.getStatus()).add(epic.getId());
+        }
+        stamped(epic);
+    }
+
+    // новая версия задачи помечается до того, как её увидят читатели
+    private <T extends Task> T stamped(T task) {
+        task.setVersion(version.incrementAndGet());
+        return task;
+    }
+
+    // вызывается после публикации изменения: номер, прочитанный до данных, не может оказаться новее них
+    private void changed() {
+        version.incrementAndGet();
+    }
+
+    private static Map<TaskStatus, Set<Integer>> newStatusIndex() {
+        Map<TaskStatus, Set<Integer>> index = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            index.put(status, ConcurrentHashMap.newKeySet());
+        }
+        return index;
+    }
+
+    private static void reindex(Map<TaskStatus, Set<Integer>> index, Task oldTask, Task newTask) {
+        if (oldTask != null && oldTask.getStatus() != null) {
+            index.get(oldTask.getStatus()).remove(oldTask.getId());
+        }
+        if (newTask != null && newTask.getStatus() != null) {
+            index.get(newTask.getStatus()).add(newTask.getId());
+        }
+    }
+
+    // индекс обновляется под блокировкой полосы, а читается без неё, поэтому статус перепроверяется
+    private static <T extends Task> List<T> collect(Map<TaskStatus, Set<Integer>> index, TaskStatus status,
+                                                    Map<Integer, T> source) {
+        List<T> result = new ArrayList<>();
+        for (Integer id : index.get(status)) {
+            T task = source.get(id);
+            if (task != null && task.getStatus() == status) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private ReentrantLock lockFor(int id) {
+        return locks[Math.floorMod(id, LOCK_STRIPES)];
+    }
+
+    private void lockBoth(int firstId, int secondId) {
+        int first = Math.floorMod(firstId, LOCK_STRIPES);
+        int second = Math.floorMod(secondId, LOCK_STRIPES);
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private void unlockBoth(int firstId, int secondId) {
+        int first = Math.floorMod(firstId, LOCK_STRIPES);
+        int second = Math.floorMod(secondId, LOCK_STRIPES);
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+}
@@ -1,6 +1,8 @@
 package manager;
 
 import exceptions.ManagerSaveException;
+import exceptions.NotFoundException;
+import exceptions.TasksOverlapException;
 import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
@@ -8,82 +10,382 @@ import tasks.TaskStatus;
 import tasks.TaskType;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
 
 
+/**
+ * Менеджер, сохраняющий задачи в CSV-файл.
+ * <p>
+ * По умолчанию файл целиком перезаписывается после каждого изменения. С порогом компактификации больше нуля
+ * включается журнал: каждое изменение дописывается одной записью в файл {@code <file>.journal}, а снимок
+ * перезаписывается только когда в журнале накопится compactionThreshold записей. Записи журнала:
+ * {@code +,<задача в формате снимка>} — вставка или замена, {@code -,<тип>,<id>} — удаление,
+ * {@code !,<тип>} — удаление всех задач типа; при двоичном снимке журнал тоже двоичный (см. {@link BinarySnapshot}),
+ * и в названиях могут быть запятые и переводы строк. Повтор журнала поверх снимка идемпотентен, поэтому сбой между
+ * записью снимка и очисткой журнала не портит данные.
+ * <p>
+ * Запись идёт в вызывающем потоке, если не задан {@link WriteBehindConfig}: тогда строки журнала
+ * формируются под изменением, а на диск их сбрасывает фоновый поток. Снимок в этом режиме только помечается
+ * устаревшим и собирается фоновым потоком под монитором менеджера один раз на сброс.
+ * <p>
+ * История просмотров хранится отдельно, в {@code <file>.history} (см. {@link HistoryLog}): просмотр не
+ * перезаписывает снимок и не ждёт диска, а при загрузке история восстанавливается повтором этого журнала.
+ */
 public class FileBackedTaskManager extends InMemoryTaskManager implements TaskManager {
 
-    private final File file;
+    private static final String HEADER = "id,type,name,status,description,duration,startTime,epic";
+
+    private final int compactionThreshold;
+
+    private final SnapshotFormat format;
+
+    private final SnapshotStore store;
+
+    private final WriteBehindConfig writeBehind;
+
+    // поток фоновой записи запускается при первом изменении, а не в конструкторе: ему нужен готовый менеджер
+    private WriteBehindWriter writer;
+
+    private boolean closed;
+
+    private final boolean durable;
+
+    private final PersistenceMetrics metrics = new PersistenceMetrics();
+
+    private final HistoryLog historyLog;
+
+    private boolean journalStarted;
+
+    private int journalSize;
 
     public FileBackedTaskManager(File file) {
-        this.file = file;
+        this(file, 0);
+    }
+
+    public FileBackedTaskManager(File file, int compactionThreshold) {
+        this(file, compactionThreshold, null);
+    }
+
+    /**
+     * С writeBehind, отличным от null, изменения пишет фоновый поток (см. {@link WriteBehindConfig});
+     * такой менеджер нужно закрыть через {@link #close()}, чтобы дописать хвост очереди.
+     */
+    public FileBackedTaskManager(File file, int compactionThreshold, WriteBehindConfig writeBehind) {
+        this(file, compactionThreshold, writeBehind, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File file, int compactionThreshold, WriteBehindConfig writeBehind,
+                                 SnapshotFormat format) {
+        this.compactionThreshold = compactionThreshold;
+        this.format = format;
+        this.store = new SnapshotStore(file, journalFileFor(file), writeBehind != null && writeBehind.isFsync());
+        this.writeBehind = writeBehind;
+        this.durable = writeBehind != null && writeBehind.getDurability() == WriteBehindConfig.Durability.DURABLE;
+        this.historyLog = new HistoryLog(historyFileFor(file));
     }
 
     private void save() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-            bw.write("id,type,name,status,description,duration,startTime,epic");
-            bw.newLine();
-            for (Task task : getTasksMap().values()) {
-                bw.write(toString(task));
-                bw.newLine();
+        long start = System.nanoTime();
+        store.writeSnapshot(snapshot(), false);
+        metrics.record(1, System.nanoTime() - start);
+    }
+
+    // вызывается под монитором менеджера: либо изменяющим потоком, либо потоком записи раз на сброс
+    private byte[] snapshot() {
+        metrics.recordSnapshot();
+        if (format == SnapshotFormat.BINARY) {
+            return BinarySnapshot.encode(List.of(getTasksMap().values(), getEpicsMap().values(),
+                    getSubtasksMap().values()));
+        }
+        StringBuilder sb = new StringBuilder(HEADER).append(System.lineSeparator());
+        for (Task task : getTasksMap().values()) {
+            sb.append(toString(task)).append(System.lineSeparator());
+        }
+        for (Epic epic : getEpicsMap().values()) {
+            sb.append(toString(epic)).append(System.lineSeparator());
+        }
+        for (Subtask subtask : getSubtasksMap().values()) {
+            sb.append(toString(subtask)).append(System.lineSeparator());
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Записывает снимок и начинает журнал заново.
+     */
+    public void compact() {
+        long change;
+        synchronized (this) {
+            change = persist(true);
+        }
+        awaitDurable(change);
+    }
+
+    public PersistenceMetrics getPersistenceMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Дописывает очередь фоновой записи и журнал просмотров и закрывает файлы.
+     */
+    public void close() {
+        WriteBehindWriter started;
+        synchronized (this) {
+            started = writer;
+            closed = true;
+        }
+        if (started != null) {
+            started.close();
+        }
+        store.close();
+        historyLog.close();
+    }
+
+    // в журнал попадают только просмотры без клиента: истории клиентов живут до перезапуска
+    @Override
+    protected void recordView(Task task, String clientId) {
+        super.recordView(task, clientId);
+        if (clientId != null) {
+            return;
+        }
+        if (!historyLog.record(task.getId())) {
+            metrics.recordDroppedView();
+            if (metrics.getDroppedViews() == 1) {
+                log("Журнал просмотров не пишется после ошибки, просмотры не сохраняются: "
+                        + historyLog.getFailure().getMessage());
             }
-            for (Epic epic : getEpicsMap().values()) {
-                bw.write(toString(epic));
-                bw.newLine();
+            return;
+        }
+        if (historyLog.needsCompaction()) {
+            historyLog.compact(historyIds());
+        }
+    }
+
+    private int[] historyIds() {
+        return getHistory().stream().mapToInt(Task::getId).toArray();
+    }
+
+    /**
+     * Изменение и постановка его записи в очередь идут под монитором менеджера, чтобы порядок в файле
+     * совпадал с порядком изменений. Ожидание записи в режиме DURABLE — уже вне монитора, поэтому изменения
+     * из других потоков успевают попасть в ту же пачку.
+     */
+    private void mutate(Supplier<byte[][]> change) {
+        long ticket;
+        synchronized (this) {
+            byte[][] entries = change.get();
+            boolean snapshot = compactionThreshold <= 0 || !journalStarted
+                    || journalSize + entries.length > compactionThreshold;
+            // при записи снимка он уже содержит эти изменения
+            ticket = persist(snapshot, snapshot ? new byte[0][] : entries);
+        }
+        awaitDurable(ticket);
+    }
+
+    private void awaitDurable(long change) {
+        if (durable) {
+            writer.awaitFlushed(change);
+        }
+    }
+
+    private long persist(boolean snapshot, byte[]... entries) {
+        boolean journaled = compactionThreshold > 0;
+        if (snapshot) {
+            journalStarted = journaled;
+            journalSize = 0;
+        } else {
+            journalSize += entries.length;
+        }
+        if (writeBehind == null) {
+            long start = System.nanoTime();
+            if (snapshot) {
+                store.writeSnapshot(snapshot(), journaled);
+            } else {
+                store.append(List.of(entries));
             }
-            for (Subtask subtask : getSubtasksMap().values()) {
-                bw.write(toString(subtask));
-                bw.newLine();
+            metrics.record(1, System.nanoTime() - start);
+            return 0;
+        }
+        if (writer == null) {
+            if (closed) {
+                throw new IllegalStateException("Фоновая запись уже закрыта");
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
+            writer = new WriteBehindWriter(store, writeBehind, metrics, this, this::snapshot);
         }
+        return snapshot ? writer.submitSnapshot(journaled) : writer.submitEntries(entries);
+    }
+
+    private byte[] putEntry(Task task) {
+        return format == SnapshotFormat.BINARY ? BinarySnapshot.putRecord(task) : line("+," + toString(task));
+    }
+
+    private byte[] deleteEntry(TaskType type, int id) {
+        return format == SnapshotFormat.BINARY ? BinarySnapshot.deleteRecord(type, id) : line("-," + type + "," + id);
+    }
+
+    private byte[] clearEntry(TaskType type) {
+        return format == SnapshotFormat.BINARY ? BinarySnapshot.clearRecord(type) : line("!," + type);
+    }
+
+    private static byte[] line(String entry) {
+        return (entry + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
-        int maxId = 0;
+        return loadFromFile(file, 0);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, int compactionThreshold) {
+        return loadFromFile(file, compactionThreshold, null);
+    }
 
+    public static FileBackedTaskManager loadFromFile(File file, int compactionThreshold,
+                                                     WriteBehindConfig writeBehind) {
         if (!file.exists()) {
             throw new ManagerSaveException("Файл не существует: " + file.getPath());
         }
+        boolean binary = BinarySnapshot.isBinary(file);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, compactionThreshold, writeBehind,
+                binary ? SnapshotFormat.BINARY : SnapshotFormat.CSV);
+        int maxId = 0;
+
+        long start = System.nanoTime();
+        List<Task> loaded = binary
+                ? BinarySnapshot.read(file)
+                : SnapshotReader.read(file, FileBackedTaskManager::fromString);
+        for (Task task : loaded) {
+            manager.restore(task);
+            maxId = Math.max(maxId, task.getId());
+        }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                Task task = fromString(line);
-                manager.addTaskByType(task);
-                maxId = Math.max(maxId, task.getId());
+        File journalFile = journalFileFor(file);
+        boolean journaled = journalFile.exists();
+        if (journaled && binary) {
+            maxId = Math.max(maxId, BinarySnapshot.readJournal(journalFile, manager.new JournalReplay()));
+        } else if (journaled) {
+            try (BufferedReader br = new BufferedReader(new FileReader(journalFile, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        maxId = Math.max(maxId, manager.replay(line));
+                    }
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при чтении журнала", e);
             }
-            manager.setIdCount(maxId + 1);
+        }
+        try {
+            manager.checkSchedule();
+        } catch (TasksOverlapException e) {
+            manager.close();
+            throw new ManagerSaveException("В файле " + file.getName() + " есть пересекающиеся по времени задачи", e);
+        }
+        if (journaled && compactionThreshold <= 0) {
+            manager.save();
+            journalFile.delete();
+        }
+        manager.setIdCount(maxId + 1);
+        manager.historyLog.replay(manager::restoreView, manager::historyIds);
+        long loadNanos = System.nanoTime() - start;
+        manager.metrics.recordLoad(loaded.size(), loadNanos);
+        manager.log("Загружено " + loaded.size() + " записей из " + file.getName()
+                + " за " + loadNanos / 1_000_000 + " мс");
+        return manager;
+    }
 
+    /**
+     * Переводит CSV-снимок в двоичный формат без загрузки в менеджер. Журнал рядом с CSV не учитывается.
+     */
+    public static void convertCsvToBinary(File csvFile, File binaryFile) {
+        List<Task> rows = SnapshotReader.read(csvFile, FileBackedTaskManager::fromString);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(binaryFile));
+             BinarySnapshot.Writer writer = new BinarySnapshot.Writer(out)) {
+            for (Task task : rows) {
+                writer.write(task);
+            }
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке из файла", e);
+            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
         }
-        return manager;
     }
 
-    private void addTaskByType(Task task) {
-        if (task instanceof Epic) {
-            getEpicsMap().put(task.getId(), (Epic) task);
-        } else if (task instanceof Subtask) {
-            getSubtasksMap().put(task.getId(), (Subtask) task);
-            int epicId = ((Subtask) task).getEpicId();
-            getEpicsMap().get(epicId).getSubtaskIds().add(task.getId());
-            updateEpicStatus(epicId);
-            updateEpicTimeFields(epicId);
-        } else {
-            getTasksMap().put(task.getId(), task);
+    private int replay(String entry) {
+        String[] split = entry.split(",", 3);
+        JournalReplay replay = new JournalReplay();
+        switch (split[0]) {
+            case "+":
+                return replay.put(fromString(entry.substring(2)));
+            case "-":
+                return replay.delete(TaskType.valueOf(split[1]), Integer.parseInt(split[2]));
+            case "!":
+                return replay.clear(TaskType.valueOf(split[1]));
+            default:
+                throw new ManagerSaveException("Повреждённая запись журнала: " + entry);
         }
     }
 
+    // изменения из журнала применяются без записи на диск: они там уже есть
+    private class JournalReplay implements BinarySnapshot.JournalVisitor {
+        @Override
+        public int put(Task task) {
+            restore(task);
+            return task.getId();
+        }
+
+        @Override
+        public int delete(TaskType type, int id) {
+            try {
+                switch (type) {
+                    case TASK:
+                        FileBackedTaskManager.super.deleteTask(id);
+                        break;
+                    case EPIC:
+                        FileBackedTaskManager.super.deleteEpic(id);
+                        break;
+                    case SUBTASK:
+                        FileBackedTaskManager.super.deleteSubtask(id);
+                        break;
+                }
+            } catch (NotFoundException e) {
+                // задача уже удалена в снимке
+            }
+            return id;
+        }
+
+        @Override
+        public int clear(TaskType type) {
+            switch (type) {
+                case TASK:
+                    FileBackedTaskManager.super.removeAllTasks();
+                    break;
+                case EPIC:
+                    FileBackedTaskManager.super.removeAllEpics();
+                    break;
+                case SUBTASK:
+                    FileBackedTaskManager.super.removeAllSubtasks();
+                    break;
+            }
+            return 0;
+        }
+    }
+
+    private static File journalFileFor(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    private static File historyFileFor(File file) {
+        return new File(file.getPath() + ".history");
+    }
+
     private static String toString(Task task) {
         StringBuilder sb = new StringBuilder();
         sb.append(task.getId()).append(",");
@@ -127,68 +429,124 @@ public class FileBackedTaskManager extends InMemoryTaskManager implements TaskMa
 
     @Override
     public void createTask(Task task) {
-        super.createTask(task);
-        save();
+        mutate(() -> {
+            super.createTask(task);
+            return new byte[][]{putEntry(getTasksMap().get(task.getId()))};
+        });
     }
 
     @Override
     public void removeAllTasks() {
-        super.removeAllTasks();
-        save();
+        mutate(() -> {
+            super.removeAllTasks();
+            return new byte[][]{clearEntry(TaskType.TASK)};
+        });
     }
 
     @Override
     public void removeAllEpics() {
-        super.removeAllEpics();
-        save();
+        mutate(() -> {
+            super.removeAllEpics();
+            return new byte[][]{clearEntry(TaskType.EPIC)};
+        });
     }
 
     @Override
     public void removeAllSubtasks() {
-        super.removeAllSubtasks();
-        save();
+        mutate(() -> {
+            super.removeAllSubtasks();
+            return new byte[][]{clearEntry(TaskType.SUBTASK)};
+        });
     }
 
     @Override
     public void createEpic(Epic epic) {
-        super.createEpic(epic);
-        save();
+        mutate(() -> {
+            super.createEpic(epic);
+            return new byte[][]{putEntry(getEpicsMap().get(epic.getId()))};
+        });
     }
 
     @Override
     public void createSubtask(Subtask subtask) {
-        super.createSubtask(subtask);
-        save();
+        mutate(() -> {
+            super.createSubtask(subtask);
+            return new byte[][]{putEntry(getSubtasksMap().get(subtask.getId()))};
+        });
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        mutate(() -> {
+            super.updateTask(task);
+            return new byte[][]{putEntry(getTasksMap().get(task.getId()))};
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+        mutate(() -> {
+            super.updateSubtask(subtask);
+            return new byte[][]{putEntry(getSubtasksMap().get(subtask.getId()))};
+        });
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        mutate(() -> {
+            super.updateEpic(epic);
+            return new byte[][]{putEntry(getEpicsMap().get(epic.getId()))};
+        });
     }
 
     @Override
     public void deleteTask(int id) {
-        super.deleteTask(id);
-        save();
+        mutate(() -> {
+            super.deleteTask(id);
+            return new byte[][]{deleteEntry(TaskType.TASK, id)};
+        });
     }
 
     @Override
     public void deleteEpic(int id) {
-        super.deleteEpic(id);
-        save();
+        mutate(() -> {
+            super.deleteEpic(id);
+            return new byte[][]{deleteEntry(TaskType.EPIC, id)};
+        });
     }
 
     @Override
     public void deleteSubtask(int id) {
-        super.deleteSubtask(id);
-        save();
+        mutate(() -> {
+            super.deleteSubtask(id);
+            return new byte[][]{deleteEntry(TaskType.SUBTASK, id)};
+        });
+    }
+
+    @Override
+    public void applyBatch(List<BatchOperation> operations) {
+        mutate(() -> {
+            super.applyBatch(operations);
+            byte[][] entries = new byte[operations.size()][];
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                Task stored = operation.getAction() == BatchOperation.Action.DELETE ? null : findStored(operation);
+                // задача могла быть удалена следующей операцией пакета, её удаление попадёт в журнал отдельно
+                entries[i] = stored != null ? putEntry(stored) : deleteEntry(operation.getType(), operation.getId());
+            }
+            return entries;
+        });
+    }
+
+    private Task findStored(BatchOperation operation) {
+        switch (operation.getType()) {
+            case EPIC:
+                return getEpicsMap().get(operation.getId());
+            case SUBTASK:
+                return getSubtasksMap().get(operation.getId());
+            default:
+                return getTasksMap().get(operation.getId());
+        }
     }
 
 }
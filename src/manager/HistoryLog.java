@@ -0,0 +1,295 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Журнал просмотров FileBackedTaskManager: по одному id задачи на строку в порядке просмотров.
+ * <p>
+ * Просмотр только кладёт id в буфер под короткой блокировкой, а дописывает буфер в файл фоновый поток раз в
+ * {@link #FLUSH_INTERVAL_MILLIS} мс или когда набралось {@link #MAX_BATCH_SIZE} просмотров. При повторе журнала
+ * история сама убирает повторы, поэтому журнал может расти; когда он становится намного длиннее истории,
+ * менеджер передаёт живую историю в {@link #compact(int[])}, и файл атомарно заменяется ею.
+ * <p>
+ * Удаления в журнал не пишутся: при повторе просмотры удалённых задач пропускаются, а журнал сразу заменяется
+ * живой историей. Иначе id удалённой задачи с наибольшим id после перезапуска достался бы новой задаче,
+ * и старые строки при следующем запуске добавили бы её в историю без просмотра.
+ * <p>
+ * Журнал просмотров вторичен: после ошибки записи {@link #record(int)} отклоняет просмотры, менеджер только
+ * считает их, а сам просмотр задачи продолжает работать.
+ */
+class HistoryLog {
+
+    static final long FLUSH_INTERVAL_MILLIS = 200;
+    static final int MAX_BATCH_SIZE = 1024;
+
+    // журнал короче этого не сжимается, даже если история маленькая
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final File file;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+
+    private int[] buffer = new int[64];
+    private int bufferSize;
+    private int[] rewrite;
+    private int lines;
+    private int compactedSize;
+    private boolean closed;
+    private RuntimeException failure;
+    private Thread thread;
+
+    private BufferedWriter out;
+
+    HistoryLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Повторяет журнал, если он есть, и запоминает его длину. Если после повтора в истории не столько задач,
+     * сколько строк в журнале (повторы или удалённые задачи), журнал заменяется живой историей live.
+     */
+    void replay(IntConsumer view, Supplier<int[]> live) {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    view.accept(Integer.parseInt(line));
+                    lines++;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала просмотров", e);
+        }
+        int[] liveIds = live.get();
+        if (liveIds.length != lines) {
+            compact(liveIds);
+        }
+    }
+
+    /**
+     * Ставит просмотр в очередь на запись. Возвращает false, если запись остановлена ошибкой и просмотр отброшен.
+     */
+    boolean record(int id) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                return false;
+            }
+            checkState();
+            if (bufferSize == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[bufferSize++] = id;
+            lines++;
+            if (thread == null) {
+                startThread();
+            } else if (bufferSize >= MAX_BATCH_SIZE) {
+                pending.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    RuntimeException getFailure() {
+        lock.lock();
+        try {
+            return failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Журнал стал вчетверо длиннее истории на момент прошлого сжатия.
+     */
+    boolean needsCompaction() {
+        lock.lock();
+        try {
+            return failure == null && lines > Math.max(MIN_COMPACTION_SIZE, compactedSize * 4L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Заменяет журнал живой историей. Ещё не записанные просмотры из буфера отбрасываются: они уже вошли
+     * в историю, из которой взят liveIds. После ошибки записи ничего не делает.
+     */
+    void compact(int[] liveIds) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                return;
+            }
+            checkState();
+            rewrite = liveIds;
+            bufferSize = 0;
+            lines = liveIds.length;
+            compactedSize = liveIds.length;
+            if (thread == null) {
+                startThread();
+            } else {
+                pending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Дописывает буфер и останавливает поток записи.
+     */
+    void close() {
+        Thread flusher;
+        lock.lock();
+        try {
+            closed = true;
+            flusher = thread;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // ошибка записи уже учтена в отброшенных просмотрах и не мешает закрыть менеджер
+        closeWriter();
+    }
+
+    private void checkState() {
+        if (closed) {
+            throw new IllegalStateException("Журнал просмотров уже закрыт");
+        }
+    }
+
+    private void startThread() {
+        thread = new Thread(this::run, "task-manager-history-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (true) {
+            int[] ids;
+            int count;
+            int[] live;
+            boolean stop;
+            lock.lock();
+            try {
+                if (!closed && rewrite == null && bufferSize < MAX_BATCH_SIZE) {
+                    try {
+                        pending.await(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        // поток записи не прерывают, остановка идёт через close()
+                    }
+                }
+                ids = buffer;
+                count = bufferSize;
+                live = rewrite;
+                stop = closed;
+                buffer = new int[Math.max(64, count)];
+                bufferSize = 0;
+                rewrite = null;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (live != null) {
+                    rewrite(live);
+                }
+                if (count > 0) {
+                    append(ids, count);
+                }
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    bufferSize = 0;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void append(int[] ids, int count) {
+        try {
+            if (out == null) {
+                out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+                        StandardCharsets.UTF_8));
+            }
+            for (int i = 0; i < count; i++) {
+                out.write(Integer.toString(ids[i]));
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи журнала просмотров", e);
+        }
+    }
+
+    private void rewrite(int[] liveIds) {
+        closeWriter();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile),
+                StandardCharsets.UTF_8))) {
+            for (int id : liveIds) {
+                writer.write(Integer.toString(id));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала просмотров", e);
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала просмотров", e);
+        }
+    }
+
+    private void closeWriter() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи журнала просмотров", e);
+        } finally {
+            out = null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package manager;
 
 import tasks.Task;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface HistoryManager {
@@ -12,4 +13,43 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    /**
+     * Просмотр от имени клиента (null — без клиента). История без разделения по клиентам их не различает.
+     */
+    default void add(Task task, String clientId) {
+        add(task);
+    }
+
+    default List<Task> getHistory(String clientId) {
+        return getHistory();
+    }
+
+    /**
+     * Не больше limit записей истории клиента clientId, которые идут после задачи afterId (0 — с начала).
+     * Если afterId в истории нет, курсор устарел, и бросается IllegalArgumentException.
+     * Реализация по умолчанию ищет afterId в полной истории, списочные истории начинают сразу с его узла.
+     */
+    default List<Task> getHistory(String clientId, int afterId, int limit) {
+        List<Task> history = getHistory(clientId);
+        int from = 0;
+        if (afterId != 0) {
+            while (from < history.size() && history.get(from).getId() != afterId) {
+                from++;
+            }
+            if (from == history.size()) {
+                throw new IllegalArgumentException("Задачи " + afterId + " нет в истории");
+            }
+            from++;
+        }
+        int to = history.size() - from <= limit ? history.size() : from + limit;
+        return new ArrayList<>(history.subList(from, to));
+    }
+
+    /**
+     * Можно ли вызывать методы из разных потоков без внешней синхронизации.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
 }
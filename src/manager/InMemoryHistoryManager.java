@@ -7,26 +7,66 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * История просмотров с ограниченной ёмкостью: при переполнении вытесняется задача,
+ * которую не просматривали дольше всех (голова списка), за O(1).
+ */
 public class InMemoryHistoryManager implements HistoryManager {
 
     private final TaskLinkedList history = new TaskLinkedList();
     public final Map<Integer, Node> historyMap = new HashMap<>();
+    private final int capacity;
+
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+    }
 
     @Override
     public void add(Task task) {
         Task taskToAdd = new Task(task);
         if (historyMap.containsKey(taskToAdd.getId())) {
             removeNode(historyMap.get(taskToAdd.getId()));
+        } else if (historyMap.size() >= capacity) {
+            removeNode(history.head);
         }
         history.linkLast(taskToAdd);
         historyMap.put(taskToAdd.getId(), history.tail);
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
     @Override
     public List<Task> getHistory() {
         return history.getTasks();
     }
 
+    @Override
+    public List<Task> getHistory(String clientId, int afterId, int limit) {
+        Node node = history.head;
+        if (afterId != 0) {
+            Node after = historyMap.get(afterId);
+            if (after == null) {
+                throw new IllegalArgumentException("Задачи " + afterId + " нет в истории");
+            }
+            node = after.next;
+        }
+        List<Task> page = new ArrayList<>();
+        while (node != null && page.size() < limit) {
+            page.add(node.task);
+            node = node.next;
+        }
+        return page;
+    }
+
     @Override
     public void remove(int id) {
         if (historyMap.containsKey(id)) {
@@ -6,43 +6,62 @@ import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
 import tasks.TaskStatus;
+import tasks.TaskType;
+import tasks.TimeSlot;
+import util.IntHashSet;
+import util.IntObjectHashMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
-public class InMemoryTaskManager implements TaskManager {
+public class InMemoryTaskManager extends AbstractTaskManager {
 
-    private final Map<Integer, Task> tasks = new HashMap<>();
+    private final IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
 
-    private final Map<Integer, Epic> epics = new HashMap<>();
+    private final IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
 
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
+    private final IntObjectHashMap<Subtask> subtasks = new IntObjectHashMap<>();
 
     private Integer idCount = 1;
 
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    // номер изменения доски, им же помечается новая версия задачи
+    private long version;
 
-    private final Comparator<Task> comparator = Comparator.comparing(Task::getStartTime);
+    // id -> элемент расписания, чтобы снимать задачу с расписания без обхода дерева
+    private final IntObjectHashMap<Task> scheduledTasks = new IntObjectHashMap<>();
 
-    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(comparator);
+    private final StatusIndex tasksByStatus = new StatusIndex();
 
-    protected Map<Integer, Task> getTasksMap() {
+    private final StatusIndex epicsByStatus = new StatusIndex();
+
+    private final StatusIndex subtasksByStatus = new StatusIndex();
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new ViewFrequencyTracker());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, ViewFrequencyTracker viewFrequency) {
+        super(historyManager, viewFrequency, () -> new TreeSet<>(PRIORITY_ORDER));
+    }
+
+    protected IntObjectHashMap<Task> getTasksMap() {
         return tasks;
     }
 
-    protected Map<Integer, Epic> getEpicsMap() {
+    protected IntObjectHashMap<Epic> getEpicsMap() {
         return epics;
     }
 
-    protected Map<Integer, Subtask> getSubtasksMap() {
+    protected IntObjectHashMap<Subtask> getSubtasksMap() {
         return subtasks;
     }
 
@@ -50,11 +69,6 @@ public class InMemoryTaskManager implements TaskManager {
         this.idCount = idCount;
     }
 
-    private void log(String message) {
-        String time = java.time.LocalTime.now().toString();
-        System.out.println("[" + time + "] [TASK MANAGER] " + message);
-    }
-
     @Override
     public List<Task> getTasks() {
         return new ArrayList<>(tasks.values());
@@ -71,66 +85,111 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public Optional<Task> getTaskById(int id) throws NotFoundException {
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        checkLimit(limit);
+        return page(tasks.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        checkLimit(limit);
+        return page(epics.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        checkLimit(limit);
+        return page(subtasks.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return collect(tasksByStatus.get(status), tasks);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        return collect(epicsByStatus.get(status), epics);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return collect(subtasksByStatus.get(status), subtasks);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id, String clientId) throws NotFoundException {
         Task task = tasks.get(id);
         if (task == null) {
             throw new NotFoundException("Task " + id + " not found");
         }
-        historyManager.add(task);
+        recordView(task, clientId);
         return Optional.of(task);
     }
 
     @Override
-    public Optional<Epic> getEpicById(int id) throws NotFoundException {
+    public Optional<Epic> getEpicById(int id, String clientId) throws NotFoundException {
         Epic epic = epics.get(id);
         if (epic == null) {
             throw new NotFoundException("Epic " + id + " not found");
         }
-        historyManager.add(epic);
+        recordView(epic, clientId);
         return Optional.of(epic);
     }
 
     @Override
-    public Optional<Subtask> getSubtaskById(int id) throws NotFoundException {
+    public Optional<Subtask> getSubtaskById(int id, String clientId) throws NotFoundException {
         Subtask subtask = subtasks.get(id);
         if (subtask == null) {
             throw new NotFoundException("Subtask " + id + " not found");
         }
-        historyManager.add(subtask);
+        recordView(subtask, clientId);
         return Optional.of(subtask);
     }
 
     @Override
     public void removeAllTasks() {
-        tasks.keySet().forEach(historyManager::remove);
+        tasks.forEachKey(this::removeFromIndexes);
         tasks.clear();
+        tasksByStatus.clear();
+        version++;
     }
 
     @Override
     public void removeAllEpics() {
-        epics.keySet().forEach(historyManager::remove);
-        subtasks.keySet().forEach(historyManager::remove);
+        epics.forEachKey(this::removeFromHistory);
+        subtasks.forEachKey(this::removeFromIndexes);
         epics.clear();
         subtasks.clear();
+        epicsByStatus.clear();
+        subtasksByStatus.clear();
+        version++;
     }
 
     @Override
     public void removeAllSubtasks() {
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.forEachKey(this::removeFromIndexes);
         subtasks.clear();
+        subtasksByStatus.clear();
+        epics.values().forEach(epic -> changeEpic(epic, Epic::clearSubtasks));
+        version++;
     }
 
     @Override
     public void createTask(Task task) {
         Task taskToAdd = new Task(task);
-        taskToAdd.setId(idCount);
-        task.setId(idCount);
-        if (hasOverlaps(taskToAdd)) {
+        // id выдаётся после проверки: отказ не тратит номер и не меняет задачу клиента
+        if (intervalIndex.overlapsAny(taskToAdd)) {
             throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
         }
-        tasks.put(idCount, taskToAdd);
-        idCount++;
-        addToPrioritizedTasks(taskToAdd);
+        taskToAdd.setId(idCount++);
+        putTask(taskToAdd);
+        task.setId(taskToAdd.getId());
         log("Создана задача ID=" + taskToAdd.getId() + ": " + taskToAdd.getName());
     }
 
@@ -139,77 +198,145 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epicToAdd = new Epic(epic);
         epicToAdd.setId(idCount);
         epic.setId(idCount);
-        epics.put(idCount, epicToAdd);
+        epicToAdd.clearSubtasks();
+        insertEpic(epicToAdd);
         idCount++;
-        updateEpicStatus(epicToAdd.getId());
-        updateEpicTimeFields(epicToAdd.getId());
         log("Создан эпик ID=" + epicToAdd.getId() + ": " + epicToAdd.getName());
     }
 
     @Override
-    public void createSubtask(Subtask subtask) {
+    public void createSubtask(Subtask subtask) throws NotFoundException {
         if (!epics.containsKey(subtask.getEpicId())) {
-            throw new IllegalArgumentException("Epic с ID " + subtask.getEpicId() + " не существует.");
+            throw new NotFoundException("Epic " + subtask.getEpicId() + " not found");
         }
         Subtask subtaskToAdd = new Subtask(subtask);
-        subtaskToAdd.setId(idCount);
-        subtask.setId(idCount);
-        if (hasOverlaps(subtaskToAdd)) {
+        if (intervalIndex.overlapsAny(subtaskToAdd)) {
             throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
         }
-        subtasks.put(idCount, subtaskToAdd);
-        idCount++;
-        epics.get(subtaskToAdd.getEpicId()).getSubtaskIds().add(subtaskToAdd.getId());
-        updateEpicStatus(subtaskToAdd.getEpicId());
-        updateEpicTimeFields(subtaskToAdd.getEpicId());
-        addToPrioritizedTasks(subtaskToAdd);
+        subtaskToAdd.setId(idCount++);
+        putSubtask(subtaskToAdd);
+        subtask.setId(subtaskToAdd.getId());
         log("Создана подзадача ID=" + subtaskToAdd.getId() + ": " + subtaskToAdd.getName());
     }
 
     @Override
     public void updateTask(Task task) {
         Task taskToUpdate = new Task(task);
-        Task oldTask = tasks.get(task.getId());
-        if (oldTask != null) {
-            prioritizedTasks.remove(oldTask);
-        }
         if (hasOverlaps(taskToUpdate)) {
             throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
         }
-        tasks.put(taskToUpdate.getId(), taskToUpdate);
-        addToPrioritizedTasks(taskToUpdate);
+        putTask(taskToUpdate);
         log("Обновлена задача ID=" + taskToUpdate.getId() + ": " + taskToUpdate.getName());
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
         Subtask subtaskToUpdate = new Subtask(subtask);
-        Subtask oldSubtask = subtasks.get(subtask.getId());
-        if (oldSubtask != null) {
-            prioritizedTasks.remove(oldSubtask);
+        Epic epic = epics.get(subtaskToUpdate.getEpicId());
+        if (epic == null) {
+            throw new NotFoundException("Epic " + subtaskToUpdate.getEpicId() + " not found");
         }
         if (hasOverlaps(subtaskToUpdate)) {
             throw new TasksOverlapException("Задача пересекается по времени с другой задачей");
         }
-        subtasks.put(subtaskToUpdate.getId(), subtaskToUpdate);
-        updateEpicStatus(subtaskToUpdate.getEpicId());
-        updateEpicTimeFields(subtaskToUpdate.getEpicId());
-        addToPrioritizedTasks(subtaskToUpdate);
+        putSubtask(subtaskToUpdate);
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        Epic epicToUpdate = new Epic(epic);
-        Epic oldEpic = epics.get(epic.getId());
-        if (oldEpic != null) {
-            prioritizedTasks.remove(oldEpic);
+        putEpic(epic);
+        log("Обновлён эпик ID=" + epic.getId() + ": " + epic.getName());
+    }
+
+    @Override
+    public void applyBatch(List<BatchOperation> operations) {
+        int[] nextId = {idCount};
+        List<Task> prepared = new BatchPlan(this::findAny, intervalIndex, () -> nextId[0]++).prepare(operations);
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            Task task = prepared.get(i);
+            switch (operation.getAction()) {
+                case CREATE:
+                    operation.getTask().setId(task.getId());
+                    put(task);
+                    break;
+                case UPDATE:
+                    put(task);
+                    break;
+                case DELETE:
+                    remove(operation.getType(), operation.getId());
+                    break;
+            }
+        }
+        idCount = nextId[0];
+        log("Применён пакет из " + operations.size() + " операций");
+    }
+
+    private void put(Task task) {
+        if (task instanceof Epic) {
+            putEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            putSubtask((Subtask) task);
+        } else {
+            putTask(task);
         }
-        epicToUpdate.setId(epic.getId());
-        epics.put(epicToUpdate.getId(), epicToUpdate);
-        updateEpicStatus(epicToUpdate.getId());
-        updateEpicTimeFields(epicToUpdate.getId());
+    }
 
-        log("Обновлён эпик ID=" + epicToUpdate.getId() + ": " + epicToUpdate.getName());
+    private void remove(TaskType type, int id) {
+        switch (type) {
+            case TASK:
+                removeTask(tasks.get(id));
+                break;
+            case EPIC:
+                removeEpic(epics.get(id));
+                break;
+            case SUBTASK:
+                removeSubtask(subtasks.get(id));
+                break;
+        }
+    }
+
+    private void putTask(Task task) {
+        Task oldTask = tasks.get(task.getId());
+        if (oldTask != null) {
+            tasksByStatus.remove(oldTask);
+            removeFromPrioritizedTasks(oldTask.getId());
+        }
+        tasks.put(task.getId(), stamped(task));
+        tasksByStatus.add(task);
+        addToPrioritizedTasks(task);
+    }
+
+    private void putSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        Subtask oldSubtask = subtasks.get(subtask.getId());
+        attachSubtask(oldSubtask, subtask, epic);
+        if (oldSubtask != null) {
+            subtasksByStatus.remove(oldSubtask);
+            removeFromPrioritizedTasks(oldSubtask.getId());
+        }
+        subtasks.put(subtask.getId(), stamped(subtask));
+        subtasksByStatus.add(subtask);
+        addToPrioritizedTasks(subtask);
+    }
+
+    private void putEpic(Epic epic) {
+        Epic epicToUpdate = epics.get(epic.getId());
+        if (epicToUpdate != null) {
+            // статус и время эпика вычисляются по подзадачам, клиент может поменять только описание
+            epicToUpdate.setName(epic.getName());
+            epicToUpdate.setDescription(epic.getDescription());
+            stamped(epicToUpdate);
+        } else {
+            epicToUpdate = new Epic(epic);
+            epicToUpdate.clearSubtasks();
+            insertEpic(epicToUpdate);
+        }
+    }
+
+    private void insertEpic(Epic epic) {
+        epics.put(epic.getId(), stamped(epic));
+        epicsByStatus.add(epic);
     }
 
     @Override
@@ -218,9 +345,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) {
             throw new NotFoundException("Task " + id + " not found");
         }
-        historyManager.remove(id);
-        tasks.remove(id);
-        prioritizedTasks.remove(task);
+        removeTask(task);
         log("Удалена задача ID=" + id + ": " + task.getName());
     }
 
@@ -230,15 +355,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             throw new NotFoundException("Epic " + id + " not found");
         }
-
-        for (Integer subtaskId : epic.getSubtaskIds()) {
-            subtasks.remove(subtaskId);
-            historyManager.remove(subtaskId);
-            prioritizedTasks.removeIf(task -> task.getId() == subtaskId);
-        }
-
-        epics.remove(id);
-        historyManager.remove(id);
+        removeEpic(epic);
         log("Удалён эпик ID=" + id + ": " + epic.getName());
     }
 
@@ -248,19 +365,42 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask == null) {
             throw new NotFoundException("Subtask " + id + " not found");
         }
+        removeSubtask(subtask);
+        log("Удалена подзадача ID=" + id + ": " + subtask.getName());
+    }
 
-        int epicId = subtask.getEpicId();
-        Epic epic = epics.get(epicId);
+    private void removeTask(Task task) {
+        version++;
+        tasks.remove(task.getId());
+        tasksByStatus.remove(task);
+        removeFromIndexes(task.getId());
+    }
+
+    private void removeEpic(Epic epic) {
+        version++;
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.remove(subtaskId);
+            if (subtask != null) {
+                subtasksByStatus.remove(subtask);
+            }
+            removeFromIndexes(subtaskId);
+        });
+
+        epics.remove(epic.getId());
+        epicsByStatus.remove(epic);
+        removeFromHistory(epic.getId());
+    }
+
+    private void removeSubtask(Subtask subtask) {
+        version++;
+        Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
-            epic.getSubtaskIds().remove((Integer) id);
-            updateEpicStatus(epicId);
-            updateEpicTimeFields(epicId);
+            changeEpic(epic, e -> e.removeSubtask(subtask));
         }
 
-        subtasks.remove(id);
-        historyManager.remove(id);
-        prioritizedTasks.remove(subtask);
-        log("Удалена подзадача ID=" + id + ": " + subtask.getName());
+        subtasks.remove(subtask.getId());
+        subtasksByStatus.remove(subtask);
+        removeFromIndexes(subtask.getId());
     }
 
     @Override
@@ -270,104 +410,112 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Epic " + id + " not found");
         }
 
-        return epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .toList();
+        List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIds().size());
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                epicSubtasks.add(subtask);
+            }
+        });
+        return epicSubtasks;
     }
 
-    protected void updateEpicStatus(int id) {
-        List<Subtask> subtasks = getEpicSubtasks(id);
-        Epic epic = epics.get(id);
+    /**
+     * Повтор сохранённого просмотра при загрузке. Просмотр удалённой задачи пропускается.
+     */
+    protected void restoreView(int id) {
+        Task task = findAny(id);
+        if (task != null) {
+            historyManager.add(task);
+        }
+    }
 
-        if (subtasks.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
+    /**
+     * Вставка или замена задачи при загрузке из файла, без проверки пересечений: записи одного пакета
+     * в журнале по отдельности могут пересекаться, целым бывает только итоговое состояние. Его после
+     * загрузки проверяет {@link #checkSchedule()}. Подзадача без эпика пропускается.
+     */
+    protected void restore(Task task) {
+        if (task instanceof Subtask && !epics.containsKey(((Subtask) task).getEpicId())) {
             return;
         }
+        put(task);
+    }
 
-        long newCount = subtasks.stream()
-                .filter(s -> s.getStatus() == TaskStatus.NEW)
-                .count();
-        long doneCount = subtasks.stream()
-                .filter(s -> s.getStatus() == TaskStatus.DONE)
-                .count();
-
-        if (doneCount == subtasks.size()) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (newCount == subtasks.size()) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+    /**
+     * Проверка загруженного расписания одним проходом по индексу интервалов: файл старой версии
+     * или исправленный вручную может содержать пересекающиеся задачи.
+     */
+    protected void checkSchedule() {
+        if (!intervalIndex.isDisjoint()) {
+            throw new TasksOverlapException("Задачи пересекаются по времени выполнения");
         }
     }
 
-    protected void updateEpicTimeFields(int id) {
-        Epic epic = epics.get(id);
-        if (epic == null) {
-            return;
+    @Override
+    Task findAny(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
         }
-
-        List<Subtask> subtaskList = getEpicSubtasks(id);
-
-        if (subtaskList.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setEndTime(null);
-            epic.setDuration(Duration.ZERO);
-            return;
+        if (task == null) {
+            task = subtasks.get(id);
         }
+        return task;
+    }
 
-        LocalDateTime start = subtaskList.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-
-        LocalDateTime end = subtaskList.stream()
-                .map(subtask -> {
-                    LocalDateTime s = subtask.getStartTime();
-                    Duration d = subtask.getDuration();
-                    return (s != null && d != null) ? s.plus(d) : null;
-                })
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+    @Override
+    Epic findEpic(int id) {
+        return epics.get(id);
+    }
 
-        Duration totalDuration = subtaskList.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+    @Override
+    void changeEpic(Epic epic, Consumer<Epic> change) {
+        TaskStatus oldStatus = epic.getStatus();
+        change.accept(epic);
+        epicsByStatus.update(epic.getId(), oldStatus, epic.getStatus());
+        stamped(epic);
+    }
 
-        epic.setStartTime(start);
-        epic.setEndTime(end);
-        epic.setDuration(totalDuration);
+    private <T extends Task> T stamped(T task) {
+        task.setVersion(++version);
+        return task;
     }
 
-    public List<Task> getHistory() {
-        return historyManager.getHistory();
+    private static <T extends Task> List<T> collect(IntHashSet ids, IntObjectHashMap<T> source) {
+        List<T> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add(source.get(id)));
+        return result;
     }
 
     private void addToPrioritizedTasks(Task task) {
         if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+            scheduleOf(task.getType()).add(task);
+            intervalIndex.add(task);
+            scheduledTasks.put(task.getId(), task);
         }
     }
 
-    public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+    private void removeFromPrioritizedTasks(int id) {
+        Task scheduled = scheduledTasks.remove(id);
+        if (scheduled != null) {
+            scheduleOf(scheduled.getType()).remove(scheduled);
+            intervalIndex.remove(id);
+        }
     }
 
-    private boolean isOverlapping(Task t1, Task t2) {
-        if (t1.getStartTime() == null || t1.getEndTime() == null
-                || t2.getStartTime() == null || t2.getEndTime() == null) {
-            return false;
-        }
-        return t1.getStartTime().isBefore(t2.getEndTime())
-                && t2.getStartTime().isBefore(t1.getEndTime());
+    private void removeFromIndexes(int id) {
+        removeFromHistory(id);
+        removeFromPrioritizedTasks(id);
     }
 
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter,
+                                        int limit) {
+        return intervalIndex.freeSlots(duration, notBefore, notAfter, limit);
+    }
 
     private boolean hasOverlaps(Task newTask) {
-        return getPrioritizedTasks().stream()
-                .anyMatch(existingTask -> !existingTask.equals(newTask) && isOverlapping(existingTask, newTask));
+        return intervalIndex.overlaps(newTask);
     }
-}
\ No newline at end of file
+}
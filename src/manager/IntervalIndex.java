@@ -0,0 +1,231 @@
+package manager;
+
+import tasks.Task;
+import tasks.TimeSlot;
+import util.IntObjectHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс временных интервалов [startTime, endTime) запланированных задач.
+ * <p>
+ * Менеджер не допускает пересечений, поэтому интервалы в индексе попарно не пересекаются:
+ * при сортировке по началу их концы тоже идут по неубыванию. Значит, из всех интервалов,
+ * начинающихся раньше конца проверяемого, наибольший конец у последнего, и проверка
+ * пересечения сводится к поиску соседа в дереве за O(log n).
+ */
+class IntervalIndex {
+
+    private static final Comparator<Interval> ORDER = Comparator
+            .comparing((Interval interval) -> interval.start)
+            .thenComparing(interval -> interval.end)
+            .thenComparingInt(interval -> interval.id);
+
+    private final TreeSet<Interval> intervals = new TreeSet<>(ORDER);
+
+    private final IntObjectHashMap<Interval> intervalsById = new IntObjectHashMap<>();
+
+    void add(Task task) {
+        remove(task.getId());
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null) {
+            return;
+        }
+        Interval interval = new Interval(task.getId(), start, end);
+        intervals.add(interval);
+        intervalsById.put(interval.id, interval);
+    }
+
+    void remove(int id) {
+        Interval interval = intervalsById.remove(id);
+        if (interval != null) {
+            intervals.remove(interval);
+        }
+    }
+
+    void clear() {
+        intervals.clear();
+        intervalsById.clear();
+    }
+
+    boolean overlaps(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null) {
+            return false;
+        }
+        return overlaps(start, end, id -> id == task.getId());
+    }
+
+    /**
+     * Проверка новой задачи: id ей ещё не выдан, поэтому учитываются все интервалы, даже если клиент
+     * прислал задачу с id существующей.
+     */
+    boolean overlapsAny(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null) {
+            return false;
+        }
+        return overlaps(start, end, id -> false);
+    }
+
+    /**
+     * Проверка интервала [start, end) без учёта интервалов, id которых отбрасывает ignored:
+     * пропущенные соседи обходятся вниз по дереву, пока не найдётся учитываемый. Для одной задачи
+     * это не больше одного шага; пакет со многими пропусками проверяется через {@link #overlaps(List, IntPredicate)}.
+     */
+    boolean overlaps(LocalDateTime start, LocalDateTime end, IntPredicate ignored) {
+        Interval last = intervals.lower(new Interval(Integer.MIN_VALUE, end, LocalDateTime.MIN));
+        while (last != null && ignored.test(last.id)) {
+            last = intervals.lower(last);
+        }
+        return last != null && start.isBefore(last.end) && last.start.isBefore(end);
+    }
+
+    /**
+     * Проверка пакета задач со временем, отсортированных по началу и концу: пересекаются ли они между собой
+     * или с интервалами индекса, кроме тех, id которых отбрасывает ignored. Пакет сливается с участком дерева
+     * от последнего учитываемого интервала перед началом пакета до конца пакета, и всё проходится одним
+     * проверочным проходом, поэтому каждый пропущенный интервал просматривается один раз: O(m + log n + k),
+     * где k — число интервалов индекса внутри промежутка пакета.
+     */
+    boolean overlaps(List<? extends Task> batch, IntPredicate ignored) {
+        if (batch.isEmpty()) {
+            return false;
+        }
+        LocalDateTime from = batch.get(0).getStartTime();
+        LocalDateTime to = from;
+        for (Task task : batch) {
+            if (task.getEndTime().isAfter(to)) {
+                to = task.getEndTime();
+            }
+        }
+        Interval previous = intervals.lower(new Interval(Integer.MIN_VALUE, from, LocalDateTime.MIN));
+        while (previous != null && ignored.test(previous.id)) {
+            previous = intervals.lower(previous);
+        }
+        LocalDateTime latestEnd = previous != null ? previous.end : null;
+
+        Iterator<Interval> indexed = intervals.subSet(new Interval(Integer.MIN_VALUE, from, LocalDateTime.MIN), true,
+                new Interval(Integer.MIN_VALUE, to, LocalDateTime.MIN), false).iterator();
+        Interval nextIndexed = nextKept(indexed, ignored);
+        int nextBatch = 0;
+        while (nextBatch < batch.size() || nextIndexed != null) {
+            LocalDateTime start;
+            LocalDateTime end;
+            Task task = nextBatch < batch.size() ? batch.get(nextBatch) : null;
+            if (nextIndexed == null || (task != null && isFirst(task, nextIndexed))) {
+                start = task.getStartTime();
+                end = task.getEndTime();
+                nextBatch++;
+            } else {
+                start = nextIndexed.start;
+                end = nextIndexed.end;
+                nextIndexed = nextKept(indexed, ignored);
+            }
+            if (latestEnd != null && start.isBefore(latestEnd)) {
+                return true;
+            }
+            if (latestEnd == null || end.isAfter(latestEnd)) {
+                latestEnd = end;
+            }
+        }
+        return false;
+    }
+
+    // при равном начале первым идёт более короткий интервал, как в ORDER: пустой интервал ни с чем не пересекается
+    private static boolean isFirst(Task task, Interval interval) {
+        int byStart = task.getStartTime().compareTo(interval.start);
+        return byStart < 0 || (byStart == 0 && !task.getEndTime().isAfter(interval.end));
+    }
+
+    private static Interval nextKept(Iterator<Interval> source, IntPredicate ignored) {
+        while (source.hasNext()) {
+            Interval interval = source.next();
+            if (!ignored.test(interval.id)) {
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Проверка того, что интервалы попарно не пересекаются, одним проходом по порядку начала.
+     * Нужна после загрузки, когда интервалы добавлялись без проверки.
+     */
+    boolean isDisjoint() {
+        Interval latest = null;
+        for (Interval interval : intervals) {
+            if (latest != null && interval.start.isBefore(latest.end) && latest.start.isBefore(interval.end)) {
+                return false;
+            }
+            if (latest == null || interval.end.isAfter(latest.end)) {
+                latest = interval;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Первые limit окон длины duration в [notBefore, notAfter), по одному на каждый промежуток между
+     * интервалами. Поиск начинается с соседа notBefore в дереве и идёт по интервалам по порядку,
+     * поэтому стоит O(log n + k), где k — число пройденных занятых интервалов.
+     */
+    List<TimeSlot> freeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int limit) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Длительность окна должна быть положительной");
+        }
+        if (notBefore == null) {
+            throw new IllegalArgumentException("Не задано начало поиска");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Количество окон должно быть положительным");
+        }
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = notBefore;
+        Interval previous = intervals.lower(new Interval(Integer.MAX_VALUE, notBefore, LocalDateTime.MAX));
+        if (previous != null && previous.end.isAfter(cursor)) {
+            cursor = previous.end;
+        }
+        for (Interval next : intervals.tailSet(new Interval(Integer.MIN_VALUE, notBefore, LocalDateTime.MIN))) {
+            if (slots.size() >= limit || !fits(cursor.plus(duration), notAfter)) {
+                return slots;
+            }
+            if (!cursor.plus(duration).isAfter(next.start)) {
+                slots.add(new TimeSlot(cursor, cursor.plus(duration)));
+            }
+            if (next.end.isAfter(cursor)) {
+                cursor = next.end;
+            }
+        }
+        if (slots.size() < limit && fits(cursor.plus(duration), notAfter)) {
+            slots.add(new TimeSlot(cursor, cursor.plus(duration)));
+        }
+        return slots;
+    }
+
+    private static boolean fits(LocalDateTime end, LocalDateTime notAfter) {
+        return notAfter == null || !end.isAfter(notAfter);
+    }
+
+    private static final class Interval {
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
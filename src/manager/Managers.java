@@ -1,11 +1,46 @@
 package manager;
 
 public class Managers {
+
+    // столько разных задач помнит история по умолчанию, более давние просмотры вытесняются
+    public static final int DEFAULT_HISTORY_CAPACITY = 10_000;
+
+    // столько записей помнят все разделы истории по клиентам вместе
+    public static final long DEFAULT_HISTORY_BUDGET = 1_000_000;
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
-        return new InMemoryHistoryManager();
+        return getDefaultHistory(DEFAULT_HISTORY_CAPACITY);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    /**
+     * История для многопоточного менеджера: у каждого клиента свой раздел под своим монитором,
+     * поэтому просмотры разных клиентов не ждут друг друга.
+     */
+    public static HistoryManager getConcurrentHistory() {
+        return getPartitionedHistory(DEFAULT_HISTORY_CAPACITY, DEFAULT_HISTORY_BUDGET);
+    }
+
+    public static HistoryManager getArrayHistory(int capacity) {
+        return new ArrayHistoryManager(capacity);
+    }
+
+    public static HistoryManager getPartitionedHistory(int partitionCapacity, long totalBudget) {
+        return new PartitionedHistoryManager(partitionCapacity, totalBudget);
+    }
+
+    public static AsyncHistoryManager getAsyncHistory() {
+        return AsyncHistoryManager.start(getDefaultHistory());
     }
 }
@@ -0,0 +1,214 @@
+package manager;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * История, разделённая по клиентам: у каждого клиента свой список последних просмотров
+ * ({@link ArrayHistoryManager} с ёмкостью partitionCapacity), просмотры без клиента идут в общий раздел.
+ * <p>
+ * Раздел создаётся при первом просмотре клиента. Разделы лежат в ConcurrentHashMap, и каждый закрыт
+ * своим монитором, так что просмотры разных клиентов друг друга не ждут. Суммарное число записей во всех
+ * разделах ограничено totalBudget: при превышении вытесняются целиком разделы, к которым дольше всех
+ * не обращались, пока сумма не опустится до 90% бюджета. Вытеснение сортирует все разделы, но случается
+ * редко и выполняется одним потоком за раз.
+ * <p>
+ * Для удаления задачи ведётся индекс id задачи → разделы, где она есть: удаление трогает только их, а не
+ * все разделы. Индекс меняется под монитором раздела вместе с его историей, вытесненный раздел из индекса
+ * убирается и удалением больше не учитывается.
+ */
+public class PartitionedHistoryManager implements HistoryManager {
+
+    private static final String SHARED = "";
+
+    private final int partitionCapacity;
+    private final long totalBudget;
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Partition>> partitionsByTask = new ConcurrentHashMap<>();
+    private final AtomicLong totalEntries = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public PartitionedHistoryManager(int partitionCapacity, long totalBudget) {
+        if (partitionCapacity <= 0 || totalBudget < partitionCapacity) {
+            throw new IllegalArgumentException("Бюджет истории должен вмещать хотя бы один полный раздел");
+        }
+        this.partitionCapacity = partitionCapacity;
+        this.totalBudget = totalBudget;
+    }
+
+    @Override
+    public void add(Task task) {
+        add(task, null);
+    }
+
+    @Override
+    public void add(Task task, String clientId) {
+        String key = clientId != null ? clientId : SHARED;
+        while (true) {
+            Partition partition = partitions.get(key);
+            if (partition == null) {
+                partition = partitions.computeIfAbsent(key, Partition::new);
+            }
+            int added;
+            synchronized (partition) {
+                if (partition.evicted) {
+                    continue;
+                }
+                int before = partition.history.size();
+                Task evicted = partition.history.addEvicting(task);
+                partition.lastAccess = System.nanoTime();
+                added = partition.history.size() - before;
+                if (added != 0 || evicted != null) {
+                    index(task.getId(), partition);
+                }
+                if (evicted != null) {
+                    unindex(evicted.getId(), partition);
+                }
+            }
+            if (added != 0 && totalEntries.addAndGet(added) > totalBudget) {
+                evictIdle();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Удаляет задачу из всех разделов, где она есть.
+     */
+    @Override
+    public void remove(int id) {
+        Set<Partition> holders = partitionsByTask.remove(id);
+        if (holders == null) {
+            return;
+        }
+        for (Partition partition : holders) {
+            int removed;
+            synchronized (partition) {
+                if (partition.evicted) {
+                    continue; // его записи уже вычтены при вытеснении
+                }
+                int before = partition.history.size();
+                partition.history.remove(id);
+                removed = before - partition.history.size();
+            }
+            if (removed != 0) {
+                totalEntries.addAndGet(-removed);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(null);
+    }
+
+    @Override
+    public List<Task> getHistory(String clientId) {
+        Partition partition = partitions.get(clientId != null ? clientId : SHARED);
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        synchronized (partition) {
+            partition.lastAccess = System.nanoTime();
+            return partition.history.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(String clientId, int afterId, int limit) {
+        Partition partition = partitions.get(clientId != null ? clientId : SHARED);
+        if (partition == null) {
+            if (afterId != 0) {
+                throw new IllegalArgumentException("Задачи " + afterId + " нет в истории");
+            }
+            return new ArrayList<>();
+        }
+        synchronized (partition) {
+            partition.lastAccess = System.nanoTime();
+            return partition.history.getHistory(null, afterId, limit);
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public long getTotalEntries() {
+        return totalEntries.get();
+    }
+
+    private void evictIdle() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long target = totalBudget - totalBudget / 10;
+            if (totalEntries.get() <= target) {
+                return;
+            }
+            // время обращения снимается до сортировки: во время неё разделы продолжают меняться
+            List<Map.Entry<Partition, Long>> byAccess = new ArrayList<>(partitions.size());
+            for (Partition partition : partitions.values()) {
+                byAccess.add(Map.entry(partition, partition.lastAccess));
+            }
+            byAccess.sort(Map.Entry.comparingByValue());
+            for (Map.Entry<Partition, Long> entry : byAccess) {
+                if (totalEntries.get() <= target) {
+                    return;
+                }
+                Partition partition = entry.getKey();
+                int size;
+                synchronized (partition) {
+                    partition.evicted = true;
+                    size = partition.history.size();
+                    for (Task task : partition.history.getHistory()) {
+                        unindex(task.getId(), partition);
+                    }
+                }
+                partitions.remove(partition.clientId, partition);
+                totalEntries.addAndGet(-size);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void index(int taskId, Partition partition) {
+        partitionsByTask.compute(taskId, (id, holders) -> {
+            Set<Partition> result = holders != null ? holders : new HashSet<>();
+            result.add(partition);
+            return result;
+        });
+    }
+
+    private void unindex(int taskId, Partition partition) {
+        partitionsByTask.computeIfPresent(taskId, (id, holders) -> {
+            holders.remove(partition);
+            return holders.isEmpty() ? null : holders;
+        });
+    }
+
+    private final class Partition {
+        private final String clientId;
+        private final ArrayHistoryManager history = new ArrayHistoryManager(partitionCapacity);
+        private volatile long lastAccess = System.nanoTime();
+        private boolean evicted;
+
+        private Partition(String clientId) {
+            this.clientId = clientId;
+        }
+    }
+}
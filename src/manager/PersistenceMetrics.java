@@ -0,0 +1,90 @@
+package manager;
+
+/**
+ * Статистика записей FileBackedTaskManager на диск: сколько было сбросов, сколько изменений они несли
+ * и сколько длились, сколько раз собирался снимок, сколько просмотров не попало в журнал просмотров
+ * после ошибки записи, а также сколько строк снимка прочитано при загрузке и за какое время.
+ */
+public class PersistenceMetrics {
+
+    private long flushCount;
+    private long changeCount;
+    private long totalFlushNanos;
+    private long maxFlushNanos;
+    private long snapshotCount;
+    private long droppedViews;
+    private int lastBatchSize;
+    private int loadedRows;
+    private long loadNanos;
+
+    synchronized void record(int batchSize, long flushNanos) {
+        flushCount++;
+        changeCount += batchSize;
+        totalFlushNanos += flushNanos;
+        maxFlushNanos = Math.max(maxFlushNanos, flushNanos);
+        lastBatchSize = batchSize;
+    }
+
+    synchronized void recordSnapshot() {
+        snapshotCount++;
+    }
+
+    synchronized void recordDroppedView() {
+        droppedViews++;
+    }
+
+    synchronized void recordLoad(int rows, long nanos) {
+        loadedRows = rows;
+        loadNanos = nanos;
+    }
+
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized long getChangeCount() {
+        return changeCount;
+    }
+
+    public synchronized long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public synchronized long getDroppedViews() {
+        return droppedViews;
+    }
+
+    public synchronized int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public synchronized double getAverageBatchSize() {
+        return flushCount == 0 ? 0 : (double) changeCount / flushCount;
+    }
+
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : totalFlushNanos / 1_000_000.0 / flushCount;
+    }
+
+    public synchronized double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    public synchronized int getLoadedRows() {
+        return loadedRows;
+    }
+
+    public synchronized double getLoadMillis() {
+        return loadNanos / 1_000_000.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PersistenceMetrics{" +
+                "flushCount=" + flushCount +
+                ", averageBatchSize=" + String.format("%.1f", getAverageBatchSize()) +
+                ", averageFlushMillis=" + String.format("%.3f", getAverageFlushMillis()) +
+                ", maxFlushMillis=" + String.format("%.3f", getMaxFlushMillis()) +
+                '}';
+    }
+}
@@ -0,0 +1,10 @@
+package manager;
+
+/**
+ * Формат снимка FileBackedTaskManager. Журнал изменений пишется в том же формате: строками CSV или двоичными
+ * записями с длиной (см. {@link BinarySnapshot#readJournal}).
+ */
+public enum SnapshotFormat {
+    CSV,
+    BINARY
+}
@@ -0,0 +1,98 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Параллельное чтение снимка: файл отображается в память, делится на куски по границам строк, и куски
+ * разбираются параллельно в общем fork-join пуле. Порядок строк сохраняется. Первая строка (заголовок)
+ * пропускается.
+ */
+class SnapshotReader {
+
+    // меньше этого кусок не делится: на маленьких файлах параллельность только мешает
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    // один кусок отображается одним MappedByteBuffer, а он ограничен 2 ГБ
+    private static final long MAX_CHUNK_SIZE = 1 << 30;
+
+    private SnapshotReader() {
+    }
+
+    static <T> List<T> read(File file, Function<String, T> parser) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            List<List<T>> parsed = chunks.parallelStream()
+                    .map(chunk -> parse(channel, chunk[0], chunk[1], parser))
+                    .toList();
+            List<T> result = new ArrayList<>(parsed.stream().mapToInt(List::size).sum());
+            parsed.forEach(result::addAll);
+            return result;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла", e);
+        }
+    }
+
+    // куски [start, end), каждый заканчивается переводом строки или концом файла
+    private static List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        long start = nextLine(channel, 0, size);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, (size - start) / (parallelism * 4L) + 1));
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLine(channel, start + chunkSize, size);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(8192, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    private static <T> List<T> parse(FileChannel channel, long start, long end, Function<String, T> parser) {
+        String text;
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            text = StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла", e);
+        }
+        List<T> result = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd > lineStart) {
+                result.add(parser.apply(text.substring(lineStart, contentEnd)));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Файлы снимка и журнала FileBackedTaskManager. Не потокобезопасен: с ним работает либо сам менеджер,
+ * либо поток фоновой записи.
+ */
+class SnapshotStore {
+
+    private final File file;
+    private final File journalFile;
+    private final boolean fsync;
+
+    private FileOutputStream journalStream;
+    private BufferedOutputStream journal;
+
+    SnapshotStore(File file, File journalFile, boolean fsync) {
+        this.file = file;
+        this.journalFile = journalFile;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Атомарно заменяет снимок; если resetJournal, журнал после этого начинается заново.
+     */
+    void writeSnapshot(byte[] content, boolean resetJournal) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.write(content);
+            if (fsync) {
+                stream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении в файл", e);
+        }
+        if (resetJournal) {
+            try {
+                closeJournal();
+                journalStream = new FileOutputStream(journalFile);
+                journal = new BufferedOutputStream(journalStream);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при очистке журнала", e);
+            }
+        }
+    }
+
+    /**
+     * Дописывает готовые записи журнала: строки с переводом строки или двоичные записи, в зависимости от формата.
+     */
+    void append(List<byte[]> entries) {
+        try {
+            for (byte[] entry : entries) {
+                journal.write(entry);
+            }
+            journal.flush();
+            if (fsync) {
+                journalStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал", e);
+        }
+    }
+
+    void close() {
+        try {
+            closeJournal();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии журнала", e);
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            journalStream = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package manager;
+
+import tasks.Task;
+import tasks.TaskStatus;
+import util.IntHashSet;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Вторичный индекс id задач одного типа по статусу. Поддерживается менеджером при каждой записи,
+ * поэтому выборка по статусу стоит O(k) вместо обхода всех задач.
+ */
+class StatusIndex {
+
+    private final Map<TaskStatus, IntHashSet> idsByStatus = new EnumMap<>(TaskStatus.class);
+
+    StatusIndex() {
+        for (TaskStatus status : TaskStatus.values()) {
+            idsByStatus.put(status, new IntHashSet());
+        }
+    }
+
+    void add(Task task) {
+        if (task.getStatus() != null) {
+            idsByStatus.get(task.getStatus()).add(task.getId());
+        }
+    }
+
+    void remove(Task task) {
+        if (task.getStatus() != null) {
+            idsByStatus.get(task.getStatus()).remove(task.getId());
+        }
+    }
+
+    void update(int id, TaskStatus oldStatus, TaskStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        if (oldStatus != null) {
+            idsByStatus.get(oldStatus).remove(id);
+        }
+        if (newStatus != null) {
+            idsByStatus.get(newStatus).add(id);
+        }
+    }
+
+    void clear() {
+        idsByStatus.values().forEach(IntHashSet::clear);
+    }
+
+    IntHashSet get(TaskStatus status) {
+        return idsByStatus.get(status);
+    }
+}
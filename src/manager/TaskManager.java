@@ -3,15 +3,33 @@ package manager;
 import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
-
+import tasks.TaskStatus;
+import tasks.TaskType;
+import tasks.TaskViews;
+import tasks.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TaskManager {
     List<Task> getTasks();
 
+    /**
+     * Страница задач: не больше limit задач с id больше afterId по возрастанию id (afterId = 0 — с начала).
+     * Стоимость зависит от limit, а не от числа задач.
+     */
+    List<Task> getTasks(int afterId, int limit);
+
     Optional<Task> getTaskById(int id);
 
+    /**
+     * Как {@link #getTaskById(int)}, но просмотр попадает в историю клиента clientId.
+     */
+    Optional<Task> getTaskById(int id, String clientId);
+
     void createTask(Task task);
 
     void updateTask(Task task);
@@ -20,8 +38,12 @@ public interface TaskManager {
 
     List<Subtask> getSubtasks();
 
+    List<Subtask> getSubtasks(int afterId, int limit);
+
     Optional<Subtask> getSubtaskById(int id);
 
+    Optional<Subtask> getSubtaskById(int id, String clientId);
+
     void createSubtask(Subtask subtask);
 
     void updateSubtask(Subtask subtask);
@@ -30,8 +52,12 @@ public interface TaskManager {
 
     List<Epic> getEpics();
 
+    List<Epic> getEpics(int afterId, int limit);
+
     Optional<Epic> getEpicById(int id);
 
+    Optional<Epic> getEpicById(int id, String clientId);
+
     List<Subtask> getEpicSubtasks(int id);
 
     void createEpic(Epic epic);
@@ -40,8 +66,56 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    /**
+     * История клиента clientId; если история не разделена по клиентам, то общая.
+     */
+    List<Task> getHistory(String clientId);
+
+    /**
+     * Страница истории клиента clientId: не больше limit записей после задачи afterId (0 — с начала).
+     * Если afterId уже нет в истории, бросается IllegalArgumentException.
+     */
+    List<Task> getHistory(String clientId, int afterId, int limit);
+
+    /**
+     * Не больше k самых просматриваемых существующих задач по убыванию оценки числа просмотров.
+     */
+    List<TaskViews> getTopViewed(int k);
+
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Запланированные задачи одного типа по времени начала, которые начинаются в [from, to) (null — без границы).
+     * У каждого типа своё расписание, поэтому выборка стоит O(log n + k), где k — размер ответа.
+     * Эпики в расписание не входят, для них список пуст.
+     */
+    List<Task> getPrioritizedTasks(TaskType type, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Страница задач по приоритету: не больше limit задач, которые идут строго после задачи с началом after
+     * и id afterId (after равен null — с начала). Задачи с одинаковым началом упорядочены по id, поэтому
+     * граница страницы между ними ничего не теряет.
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime after, int afterId, int limit);
+
+    /**
+     * Первые limit свободных окон длины duration, которые начинаются не раньше notBefore и заканчиваются
+     * не позже notAfter (null — без ограничения). В каждом промежутке между задачами берётся самое раннее окно.
+     */
+    List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter, int limit);
+
+    default Optional<TimeSlot> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return findFreeSlots(duration, notBefore, notAfter, 1).stream().findFirst();
+    }
+
+    List<Task> getTasksByStatus(TaskStatus status);
+
+    List<Subtask> getSubtasksByStatus(TaskStatus status);
+
+    List<Epic> getEpicsByStatus(TaskStatus status);
+
     void removeAllTasks();
 
     void removeAllEpics();
@@ -49,4 +123,24 @@ public interface TaskManager {
     void removeAllSubtasks();
 
     void updateEpic(Epic epic);
+
+    /**
+     * Применяет операции по порядку как одно изменение: сначала проверяется весь пакет, и при ошибке
+     * не применяется ни одна операция. Созданным задачам, как и в createTask, проставляется id.
+     */
+    void applyBatch(List<BatchOperation> operations);
+
+    /**
+     * Номер изменения доски: растёт после каждого изменения задач, эпиков и подзадач, просмотры его не меняют.
+     * Номер, прочитанный до списка, не новее самого списка, поэтому по нему можно строить ETag.
+     */
+    long getVersion();
+
+    default void createTasks(Collection<Task> tasks) {
+        applyBatch(tasks.stream().map(BatchOperation::create).toList());
+    }
+
+    default void createSubtasks(Collection<Subtask> subtasks) {
+        applyBatch(subtasks.stream().map(BatchOperation::create).toList());
+    }
 }
@@ -0,0 +1,211 @@
+package manager;
+
+import util.IntObjectHashMap;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Частота просмотров задач в постоянной памяти: count-min sketch (4 строки по 2048 счётчиков, консервативное
+ * обновление) и куча из topCapacity самых просматриваемых задач с их оценками.
+ * <p>
+ * С halfLife просмотры затухают: вес просмотра растёт как 2^(t / halfLife) от опорного момента, поэтому
+ * старые счётчики трогать не нужно, а при делении на текущий вес получается затухший счёт. Когда вес
+ * становится слишком большим, все счётчики делятся на него и опорный момент сдвигается.
+ * <p>
+ * Просмотр не ждёт блокировку: если она занята, просмотр пропускается и учитывается в
+ * {@link #getSkippedViews()}. Для оценки самых частых задач такая выборка допустима.
+ */
+public class ViewFrequencyTracker {
+
+    public static final int DEFAULT_TOP_CAPACITY = 100;
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 11;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    // выше этого веса счётчики пересчитываются к новому опорному моменту
+    private static final double RESCALE_WEIGHT = 1e100;
+
+    private final int topCapacity;
+    private final double halfLifeMillis;
+    private final Clock clock;
+
+    private final double[][] counters = new double[DEPTH][WIDTH];
+    private final IntObjectHashMap<ViewCount> hitters = new IntObjectHashMap<>();
+    private final PriorityQueue<ViewCount> heap = new PriorityQueue<>(Comparator.comparingDouble(ViewCount::getViews));
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder skippedViews = new LongAdder();
+
+    private long landmarkMillis;
+
+    public ViewFrequencyTracker() {
+        this(DEFAULT_TOP_CAPACITY, null);
+    }
+
+    /**
+     * halfLife равный null отключает затухание.
+     */
+    public ViewFrequencyTracker(int topCapacity, Duration halfLife) {
+        this(topCapacity, halfLife, Clock.systemUTC());
+    }
+
+    public ViewFrequencyTracker(int topCapacity, Duration halfLife, Clock clock) {
+        if (topCapacity <= 0) {
+            throw new IllegalArgumentException("Размер списка частых задач должен быть положительным");
+        }
+        if (halfLife != null && (halfLife.isNegative() || halfLife.isZero())) {
+            throw new IllegalArgumentException("Период полураспада должен быть положительным");
+        }
+        this.topCapacity = topCapacity;
+        this.halfLifeMillis = halfLife != null ? halfLife.toMillis() : 0;
+        this.clock = clock;
+        this.landmarkMillis = clock.millis();
+    }
+
+    public void record(int taskId) {
+        if (!lock.tryLock()) {
+            skippedViews.increment();
+            return;
+        }
+        try {
+            double weight = weight(clock.millis());
+            if (weight > RESCALE_WEIGHT) {
+                rescale(weight);
+                weight = 1;
+            }
+            double estimate = increment(taskId, weight);
+            ViewCount hitter = hitters.get(taskId);
+            if (hitter != null) {
+                heap.remove(hitter);
+                hitter.count = estimate;
+                heap.add(hitter);
+            } else if (heap.size() < topCapacity) {
+                addHitter(taskId, estimate);
+            } else if (estimate > heap.peek().count) {
+                hitters.remove(heap.poll().taskId);
+                addHitter(taskId, estimate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Убирает удалённую задачу из списка частых, чтобы она не занимала в нём место. Счётчики скетча не
+     * уменьшаются: id задач не переиспользуются, и остаток влияет только на оценки при коллизиях.
+     * В отличие от просмотра, удаление ждёт блокировку.
+     */
+    public void remove(int taskId) {
+        lock.lock();
+        try {
+            ViewCount hitter = hitters.remove(taskId);
+            if (hitter != null) {
+                heap.remove(hitter);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Не больше k самых просматриваемых задач по убыванию оценки; с затуханием оценки приведены к текущему
+     * моменту.
+     */
+    public List<ViewCount> top(int k) {
+        lock.lock();
+        try {
+            double weight = weight(clock.millis());
+            List<ViewCount> top = new ArrayList<>(heap.size());
+            for (ViewCount hitter : heap) {
+                top.add(new ViewCount(hitter.taskId, hitter.count / weight));
+            }
+            top.sort(Comparator.comparingDouble(ViewCount::getViews).reversed());
+            return top.size() > k ? new ArrayList<>(top.subList(0, k)) : top;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTopCapacity() {
+        return topCapacity;
+    }
+
+    public long getSkippedViews() {
+        return skippedViews.sum();
+    }
+
+    private double weight(long nowMillis) {
+        if (halfLifeMillis == 0) {
+            return 1;
+        }
+        return Math.pow(2, (nowMillis - landmarkMillis) / halfLifeMillis);
+    }
+
+    private void rescale(double weight) {
+        for (double[] row : counters) {
+            for (int i = 0; i < WIDTH; i++) {
+                row[i] /= weight;
+            }
+        }
+        for (ViewCount hitter : heap) {
+            hitter.count /= weight;
+        }
+        landmarkMillis = clock.millis();
+    }
+
+    // консервативное обновление: растут только счётчики, равные текущему минимуму
+    private double increment(int taskId, double weight) {
+        int[] columns = new int[DEPTH];
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            columns[row] = column(taskId, row);
+            min = Math.min(min, counters[row][columns[row]]);
+        }
+        double estimate = min + weight;
+        for (int row = 0; row < DEPTH; row++) {
+            if (counters[row][columns[row]] < estimate) {
+                counters[row][columns[row]] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    private void addHitter(int taskId, double estimate) {
+        ViewCount hitter = new ViewCount(taskId, estimate);
+        hitters.put(taskId, hitter);
+        heap.add(hitter);
+    }
+
+    private static int column(int taskId, int row) {
+        int h = taskId * SEEDS[row];
+        return (h ^ (h >>> 15)) & (WIDTH - 1);
+    }
+
+    /**
+     * Оценка числа просмотров задачи.
+     */
+    public static class ViewCount {
+        private final int taskId;
+        private double count;
+
+        ViewCount(int taskId, double count) {
+            this.taskId = taskId;
+            this.count = count;
+        }
+
+        public int getTaskId() {
+            return taskId;
+        }
+
+        public double getViews() {
+            return count;
+        }
+    }
+}
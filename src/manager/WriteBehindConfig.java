@@ -0,0 +1,57 @@
+package manager;
+
+import java.time.Duration;
+
+/**
+ * Настройки фоновой записи FileBackedTaskManager.
+ * <p>
+ * DURABLE: вызывающий поток ждёт, пока его изменение окажется на диске; изменения, пришедшие за время
+ * одной записи, попадают на диск следующей записью вместе (group commit). RELAXED: изменение только ставится
+ * в очередь, поток записи сбрасывает накопленное раз в flushInterval или после maxBatchSize изменений.
+ */
+public final class WriteBehindConfig {
+
+    public enum Durability {
+        DURABLE,
+        RELAXED
+    }
+
+    private final Durability durability;
+    private final Duration flushInterval;
+    private final int maxBatchSize;
+    private final boolean fsync;
+
+    public WriteBehindConfig(Durability durability, Duration flushInterval, int maxBatchSize, boolean fsync) {
+        if (flushInterval.isNegative() || flushInterval.isZero() || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Интервал и размер пачки должны быть положительными");
+        }
+        this.durability = durability;
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.fsync = fsync;
+    }
+
+    public static WriteBehindConfig durable() {
+        return new WriteBehindConfig(Durability.DURABLE, Duration.ofMillis(10), 512, true);
+    }
+
+    public static WriteBehindConfig relaxed() {
+        return new WriteBehindConfig(Durability.RELAXED, Duration.ofMillis(200), 1024, false);
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+}
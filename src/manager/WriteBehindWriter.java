@@ -0,0 +1,242 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Поток фоновой записи: копит изменения и сбрасывает их в {@link SnapshotStore} пачками.
+ * <p>
+ * Каждое изменение получает номер. Запрос снимка только помечает его устаревшим: сам снимок собирается
+ * один раз на сброс, под монитором owner, и вытесняет все строки журнала, накопленные к этому моменту,
+ * поэтому подряд идущие перезаписи снимка схлопываются в одну. Пачка сбрасывается, когда набралось
+ * maxBatchSize изменений, прошёл flushInterval с первого несброшенного изменения, кто-то ждёт своё изменение
+ * или писатель закрывается.
+ */
+class WriteBehindWriter {
+
+    private final SnapshotStore store;
+    private final WriteBehindConfig config;
+    private final PersistenceMetrics metrics;
+    private final Object owner;
+    private final Supplier<byte[]> snapshots;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    private boolean pendingSnapshot;
+    private boolean pendingSnapshotResetsJournal;
+    private List<byte[]> pendingEntries = new ArrayList<>();
+    private long pendingSince;
+    private long submittedChange;
+    private long flushedChange;
+    private int waiters;
+    private boolean closed;
+    private RuntimeException failure;
+
+    private final Thread thread;
+
+    /**
+     * snapshots вызывается из потока записи под монитором owner; изменения, которые ставятся в очередь
+     * под тем же монитором, не могут разойтись с собранным снимком.
+     */
+    WriteBehindWriter(SnapshotStore store, WriteBehindConfig config, PersistenceMetrics metrics,
+                      Object owner, Supplier<byte[]> snapshots) {
+        this.store = store;
+        this.config = config;
+        this.metrics = metrics;
+        this.owner = owner;
+        this.snapshots = snapshots;
+        this.thread = new Thread(this::run, "task-manager-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    long submitEntries(byte[]... entries) {
+        lock.lock();
+        try {
+            checkState();
+            pendingEntries.addAll(List.of(entries));
+            return submitted();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long submitSnapshot(boolean resetJournal) {
+        lock.lock();
+        try {
+            checkState();
+            pendingSnapshot = true;
+            pendingSnapshotResetsJournal = resetJournal;
+            pendingEntries = new ArrayList<>();
+            return submitted();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitFlushed(long change) {
+        lock.lock();
+        try {
+            waiters++;
+            pending.signal();
+            while (flushedChange < change && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            waiters--;
+            checkState();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает всё накопленное и останавливает поток.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long submitted() {
+        if (submittedChange == flushedChange) {
+            pendingSince = System.nanoTime();
+        }
+        submittedChange++;
+        if (submittedChange - flushedChange >= config.getMaxBatchSize()) {
+            pending.signal();
+        }
+        return submittedChange;
+    }
+
+    private void checkState() {
+        if (failure != null) {
+            throw new ManagerSaveException("Фоновая запись остановлена после ошибки", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Фоновая запись уже закрыта");
+        }
+    }
+
+    private void run() {
+        long intervalNanos = config.getFlushInterval().toNanos();
+        while (true) {
+            boolean snapshotRequested;
+            lock.lock();
+            try {
+                while (!readyToFlush(intervalNanos)) {
+                    if (submittedChange == flushedChange) {
+                        if (closed) {
+                            return;
+                        }
+                        pending.awaitUninterruptibly();
+                    } else {
+                        long waitNanos = pendingSince + intervalNanos - System.nanoTime();
+                        try {
+                            pending.awaitNanos(Math.max(waitNanos, TimeUnit.MICROSECONDS.toNanos(100)));
+                        } catch (InterruptedException e) {
+                            // поток записи не прерывают, остановка идёт через close()
+                        }
+                    }
+                }
+                snapshotRequested = pendingSnapshot;
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            byte[] snapshot = null;
+            boolean resetJournal = false;
+            List<byte[]> entries = List.of();
+            long target = flushedChange;
+            RuntimeException error = null;
+            if (!snapshotRequested) {
+                lock.lock();
+                try {
+                    if (pendingSnapshot) {
+                        continue; // снимок запросили, пока поток выходил из ожидания: строки уже вытеснены
+                    }
+                    entries = pendingEntries;
+                    target = submittedChange;
+                    pendingEntries = new ArrayList<>();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            try {
+                if (snapshotRequested) {
+                    // порядок блокировок как у изменений: сначала монитор владельца, потом очередь
+                    synchronized (owner) {
+                        snapshot = snapshots.get();
+                        lock.lock();
+                        try {
+                            resetJournal = pendingSnapshotResetsJournal;
+                            target = submittedChange;
+                            pendingSnapshot = false;
+                            pendingEntries = new ArrayList<>(); // уже вошли в снимок
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    store.writeSnapshot(snapshot, resetJournal);
+                }
+                if (!entries.isEmpty()) {
+                    store.append(entries);
+                }
+            } catch (RuntimeException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                metrics.record((int) (target - flushedChange), System.nanoTime() - start);
+                flushedChange = target;
+                if (error != null) {
+                    failure = error;
+                }
+                flushed.signalAll();
+                if (failure != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean readyToFlush(long intervalNanos) {
+        long waiting = submittedChange - flushedChange;
+        if (waiting == 0) {
+            return false;
+        }
+        return closed
+                || waiters > 0
+                || waiting >= config.getMaxBatchSize()
+                || System.nanoTime() - pendingSince >= intervalNanos;
+    }
+}
@@ -2,62 +2,130 @@ package server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 import manager.Managers;
 import manager.TaskManager;
 import server.adapters.DurationTypeAdapter;
+import server.adapters.EpicTypeAdapter;
+import server.adapters.IntHashSetTypeAdapter;
 import server.adapters.LocalDateTimeTypeAdapter;
+import server.adapters.SubtaskTypeAdapter;
+import server.adapters.TaskTypeAdapter;
+import server.handlers.BatchHandler;
 import server.handlers.EpicsHandler;
 import server.handlers.HistoryHandler;
 import server.handlers.PrioritizedHandler;
+import server.handlers.ResponseCompression;
+import server.handlers.Router;
 import server.handlers.SubtasksHandler;
 import server.handlers.TasksHandler;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import util.IntHashSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
     private final HttpServer httpServer;
     private final TaskManager taskManager;
+    private final ServerConfig config;
     private final Gson gson;
+    private final Semaphore inFlight;
+    private ExecutorService executor;
 
     public HttpTaskServer() throws IOException {
-        this(Managers.getDefault());
+        this(Managers.getConcurrent());
     }
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ServerConfig.fixed());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
         this.taskManager = taskManager;
+        this.config = config;
         GsonBuilder gsonBuilder = new GsonBuilder();
         this.gson = gsonBuilder.registerTypeAdapter(Duration.class, new DurationTypeAdapter())
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+                .registerTypeAdapter(IntHashSet.class, new IntHashSetTypeAdapter())
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+                .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
+                .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
                 .create();
-        this.httpServer = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this.httpServer = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        this.inFlight = config.getMaxInFlight() > 0 ? new Semaphore(config.getMaxInFlight()) : null;
     }
 
     public void start() {
         registerHandlers();
-        httpServer.setExecutor(java.util.concurrent.Executors.newFixedThreadPool(10));
+        executor = config.getExecutorMode() == ServerConfig.ExecutorMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(config.getThreads());
+        httpServer.setExecutor(executor);
         httpServer.start();
-        System.out.println("HTTP-сервер запущен на порту " + PORT);
+        System.out.println("HTTP-сервер запущен на порту " + getPort() + ", исполнитель " + config);
     }
 
     private void registerHandlers() {
-        httpServer.createContext("/tasks", new TasksHandler(taskManager, gson));
-        httpServer.createContext("/subtasks", new SubtasksHandler(taskManager, gson));
-        httpServer.createContext("/epics", new EpicsHandler(taskManager, gson));
-        httpServer.createContext("/history", new HistoryHandler(taskManager, gson));
-        httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        ResponseCompression compression = new ResponseCompression(config.getCompressionLevel(),
+                config.getCompressionThreshold());
+        TasksHandler tasks = new TasksHandler(taskManager, gson, compression);
+        SubtasksHandler subtasks = new SubtasksHandler(taskManager, gson, compression);
+        EpicsHandler epics = new EpicsHandler(taskManager, gson, compression);
+        HistoryHandler history = new HistoryHandler(taskManager, gson, compression);
+        PrioritizedHandler prioritized = new PrioritizedHandler(taskManager, gson, compression);
+        BatchHandler batch = new BatchHandler(taskManager, gson, compression);
 
+        Router router = new Router()
+                .add("GET", "/tasks", tasks::getTasks)
+                .add("POST", "/tasks", tasks::saveTask)
+                .add("DELETE", "/tasks", tasks::deleteTasks)
+                .add("GET", "/tasks/{id}", tasks::getTask)
+                .add("DELETE", "/tasks/{id}", tasks::deleteTask)
+                .add("GET", "/subtasks", subtasks::getSubtasks)
+                .add("POST", "/subtasks", subtasks::saveSubtask)
+                .add("GET", "/subtasks/{id}", subtasks::getSubtask)
+                .add("DELETE", "/subtasks/{id}", subtasks::deleteSubtask)
+                .add("GET", "/subtasks/epic/{epicId}", subtasks::getEpicSubtasks)
+                .add("GET", "/epics", epics::getEpics)
+                .add("POST", "/epics", epics::saveEpic)
+                .add("GET", "/epics/{id}", epics::getEpic)
+                .add("DELETE", "/epics/{id}", epics::deleteEpic)
+                .add("GET", "/epics/{epicId}/subtasks", subtasks::getEpicSubtasks)
+                .add("GET", "/history", history::getHistory)
+                .add("GET", "/history/top", history::getTopViewed)
+                .add("GET", "/prioritized", prioritized::getPrioritized)
+                .add("GET", "/prioritized/free-slots", prioritized::getFreeSlots)
+                .add("POST", "/batch", batch::applyBatch);
+        HttpContext context = httpServer.createContext("/", router);
+        if (inFlight != null) {
+            context.getFilters().add(new InFlightLimitFilter(inFlight));
+        }
     }
 
     public void stop() {
         httpServer.stop(0);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
         System.out.println("HTTP-сервер остановлен");
     }
 
+    /**
+     * Порт, на котором слушает сервер; при порте 0 в настройках — выбранный системой.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
     public static void main(String[] args) {
         try {
             HttpTaskServer server = new HttpTaskServer();
@@ -0,0 +1,43 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Не пускает к обработчикам больше запросов, чем есть разрешений у общего семафора; лишние получают 503
+ * сразу, а не ждут в очереди исполнителя.
+ */
+class InFlightLimitFilter extends Filter {
+    private final Semaphore permits;
+
+    InFlightLimitFilter(Semaphore permits) {
+        this.permits = permits;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!permits.tryAcquire()) {
+            byte[] body = "Сервер перегружен".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain;charset=utf-8");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(503, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Ограничение числа одновременных запросов";
+    }
+}
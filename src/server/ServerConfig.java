@@ -0,0 +1,125 @@
+package server;
+
+/**
+ * Настройки HttpTaskServer.
+ * <p>
+ * FIXED: запросы обрабатывает пул из threads потоков, медленный клиент или долгая запись в файл занимают
+ * поток целиком. VIRTUAL: на каждый запрос свой виртуальный поток, ожидание ввода-вывода потоки не держит.
+ * backlog — длина очереди непринятых соединений (0 — значение системы). maxInFlight ограничивает число
+ * одновременно обрабатываемых запросов, сверх него сервер сразу отвечает 503; 0 — без ограничения.
+ * <p>
+ * В JDK 21 потоки тела запроса встроенного HttpServer читаются под synchronized, и виртуальный поток,
+ * ждущий тело от медленного клиента, занимает несущий поток целиком. Несущих потоков столько же, сколько
+ * ядер, поэтому в режиме VIRTUAL медленные клиенты на POST всё ещё могут остановить сервер.
+ * <p>
+ * JSON-ответ длиннее compressionThreshold байт сжимается gzip или deflate, если клиент их принимает;
+ * compressionLevel — уровень Deflater от 1 до 9, 0 выключает сжатие.
+ */
+public final class ServerConfig {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    public enum ExecutorMode {
+        FIXED,
+        VIRTUAL
+    }
+
+    private final ExecutorMode executorMode;
+    private final int threads;
+    private final int port;
+    private final int backlog;
+    private final int maxInFlight;
+    private final int compressionLevel;
+    private final int compressionThreshold;
+
+    public ServerConfig(ExecutorMode executorMode, int threads, int port, int backlog, int maxInFlight) {
+        this(executorMode, threads, port, backlog, maxInFlight, DEFAULT_COMPRESSION_LEVEL,
+                DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    private ServerConfig(ExecutorMode executorMode, int threads, int port, int backlog, int maxInFlight,
+                         int compressionLevel, int compressionThreshold) {
+        if (executorMode == ExecutorMode.FIXED && threads <= 0) {
+            throw new IllegalArgumentException("Число потоков должно быть положительным");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Некорректный порт: " + port);
+        }
+        if (backlog < 0 || maxInFlight < 0) {
+            throw new IllegalArgumentException("backlog и maxInFlight не могут быть отрицательными");
+        }
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Уровень сжатия должен быть от 0 до 9");
+        }
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("Порог сжатия не может быть отрицательным");
+        }
+        this.executorMode = executorMode;
+        this.threads = threads;
+        this.port = port;
+        this.backlog = backlog;
+        this.maxInFlight = maxInFlight;
+        this.compressionLevel = compressionLevel;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Прежнее поведение сервера: пул из 10 потоков на порту 8080.
+     */
+    public static ServerConfig fixed() {
+        return new ServerConfig(ExecutorMode.FIXED, 10, DEFAULT_PORT, 0, 0);
+    }
+
+    public static ServerConfig virtual() {
+        return new ServerConfig(ExecutorMode.VIRTUAL, 0, DEFAULT_PORT, 1024, 10_000);
+    }
+
+    public ServerConfig withPort(int port) {
+        return new ServerConfig(executorMode, threads, port, backlog, maxInFlight, compressionLevel,
+                compressionThreshold);
+    }
+
+    public ServerConfig withMaxInFlight(int maxInFlight) {
+        return new ServerConfig(executorMode, threads, port, backlog, maxInFlight, compressionLevel,
+                compressionThreshold);
+    }
+
+    public ServerConfig withCompression(int level, int threshold) {
+        return new ServerConfig(executorMode, threads, port, backlog, maxInFlight, level, threshold);
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return executorMode == ExecutorMode.FIXED ? "FIXED(" + threads + ")" : "VIRTUAL";
+    }
+}
@@ -0,0 +1,139 @@
+package server.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Общая часть потоковых адаптеров задач: поля пишутся и читаются прямо через JsonWriter/JsonReader,
+ * без рефлексии и промежуточного дерева JsonElement. Формат совпадает с тем, что давал Gson по полям класса:
+ * null не пишется, незнакомые поля и явные null при чтении пропускаются, неизвестный статус читается как null.
+ */
+abstract class AbstractTaskTypeAdapter<T extends Task> extends TypeAdapter<T> {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final DurationTypeAdapter durations = new DurationTypeAdapter();
+    private final LocalDateTimeTypeAdapter dateTimes = new LocalDateTimeTypeAdapter();
+
+    /**
+     * Значения полей, прочитанные из JSON, до создания задачи.
+     */
+    static final class Fields {
+        int id;
+        String name;
+        String description;
+        TaskStatus status;
+        Duration duration;
+        LocalDateTime startTime;
+        int epicId;
+        LocalDateTime endTime;
+    }
+
+    @Override
+    public final void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        if (task.getName() != null) {
+            out.name("name").value(task.getName());
+        }
+        if (task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        if (task.getDuration() != null) {
+            out.name("duration");
+            durations.write(out, task.getDuration());
+        }
+        if (task.getStartTime() != null) {
+            out.name("startTime");
+            dateTimes.write(out, task.getStartTime());
+        }
+        writeOwnFields(out, task);
+        out.endObject();
+    }
+
+    @Override
+    public final T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    fields.id = in.nextInt();
+                    break;
+                case "name":
+                    fields.name = in.nextString();
+                    break;
+                case "description":
+                    fields.description = in.nextString();
+                    break;
+                case "status":
+                    fields.status = status(in.nextString());
+                    break;
+                case "duration":
+                    fields.duration = durations.read(in);
+                    break;
+                case "startTime":
+                    fields.startTime = dateTimes.read(in);
+                    break;
+                case "epicId":
+                    fields.epicId = in.nextInt();
+                    break;
+                case "endTime":
+                    fields.endTime = dateTimes.read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return create(fields);
+    }
+
+    /**
+     * Пишет поля, которых нет у {@link Task}.
+     */
+    protected void writeOwnFields(JsonWriter out, T task) throws IOException {
+    }
+
+    protected abstract T create(Fields fields);
+
+    protected final void writeDateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            dateTimes.write(out, value);
+        }
+    }
+
+    private static TaskStatus status(String name) {
+        for (TaskStatus status : STATUSES) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -1,27 +1,32 @@
 package server.adapters;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.time.Duration;
 
-public class DurationTypeAdapter implements JsonSerializer<Duration>, JsonDeserializer<Duration> {
+/**
+ * Длительность в JSON — целое число минут.
+ */
+public class DurationTypeAdapter extends TypeAdapter<Duration> {
     @Override
-    public JsonElement serialize(Duration src, Type typeOfSrc, JsonSerializationContext context) {
-        return new JsonPrimitive(src != null ? src.toMinutes() : null);
+    public void write(JsonWriter out, Duration value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(value.toMinutes());
     }
 
     @Override
-    public Duration deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-        return json != null && !json.isJsonNull()
-                ? Duration.ofMinutes(json.getAsLong())
-                : null;
+    public Duration read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return Duration.ofMinutes(in.nextLong());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import tasks.Epic;
+
+import java.io.IOException;
+
+/**
+ * Эпик пишется вместе со списком подзадач и временем окончания. При чтении subtaskIds пропускается:
+ * состав эпика менеджер собирает сам по epicId подзадач.
+ */
+public class EpicTypeAdapter extends AbstractTaskTypeAdapter<Epic> {
+    @Override
+    protected void writeOwnFields(JsonWriter out, Epic epic) throws IOException {
+        out.name("subtaskIds").beginArray();
+        for (int subtaskId : epic.getSubtaskIds()) {
+            out.value(subtaskId);
+        }
+        out.endArray();
+        writeDateTime(out, "endTime", epic.getEndTime());
+    }
+
+    @Override
+    protected Epic create(Fields fields) {
+        Epic epic = new Epic(fields.id, fields.name, fields.description, fields.status, fields.duration,
+                fields.startTime);
+        epic.setEndTime(fields.endTime);
+        return epic;
+    }
+}
@@ -0,0 +1,44 @@
+package server.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntHashSet;
+
+import java.io.IOException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Множество чисел в JSON — массив.
+ */
+public class IntHashSetTypeAdapter extends TypeAdapter<IntHashSet> {
+    @Override
+    public void write(JsonWriter out, IntHashSet value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        PrimitiveIterator.OfInt ids = value.iterator();
+        while (ids.hasNext()) {
+            out.value(ids.nextInt());
+        }
+        out.endArray();
+    }
+
+    @Override
+    public IntHashSet read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        IntHashSet set = new IntHashSet();
+        in.beginArray();
+        while (in.hasNext()) {
+            set.add(in.nextInt());
+        }
+        in.endArray();
+        return set;
+    }
+}
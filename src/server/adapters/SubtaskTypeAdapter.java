@@ -0,0 +1,19 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import tasks.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskTypeAdapter extends AbstractTaskTypeAdapter<Subtask> {
+    @Override
+    protected void writeOwnFields(JsonWriter out, Subtask subtask) throws IOException {
+        out.name("epicId").value(subtask.getEpicId());
+    }
+
+    @Override
+    protected Subtask create(Fields fields) {
+        return new Subtask(fields.id, fields.name, fields.description, fields.status, fields.duration,
+                fields.startTime, fields.epicId);
+    }
+}
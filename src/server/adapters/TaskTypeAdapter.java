@@ -0,0 +1,11 @@
+package server.adapters;
+
+import tasks.Task;
+
+public class TaskTypeAdapter extends AbstractTaskTypeAdapter<Task> {
+    @Override
+    protected Task create(Fields fields) {
+        return new Task(fields.id, fields.name, fields.description, fields.status, fields.duration,
+                fields.startTime);
+    }
+}
@@ -1,47 +1,130 @@
 package server.handlers;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
-import exceptions.NotFoundException;
-import exceptions.TasksOverlapException;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Общая часть обработчиков: отправка JSON и текста, условный GET, постраничный вывод.
+ * Маршруты обработчиков и разбор ошибок — в {@link Router}.
+ */
+public abstract class BaseHttpHandler {
+    // заголовок, по которому история просмотров разделяется между клиентами
+    protected static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    // курсор следующей страницы, передаётся обратно в параметре after
+    protected static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // номера версий начинаются заново после перезапуска, поэтому ETag содержит ещё и время запуска
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    // буфер между JsonWriter и ответом: отправляется одним chunk
+    private static final int STREAM_BUFFER_SIZE = 8192;
 
-public abstract class BaseHttpHandler implements HttpHandler {
     protected Gson gson;
+    private final ResponseCompression compression;
 
-    public BaseHttpHandler(Gson gson) {
+    public BaseHttpHandler(Gson gson, ResponseCompression compression) {
         this.gson = gson;
+        this.compression = compression;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    protected String clientId(HttpExchange exchange) {
+        String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? null : clientId.trim();
+    }
+
+    /**
+     * Коллекция пишется в ответ потоком через JsonWriter с chunked-кодированием, без промежуточной строки
+     * и массива байт. Сам список менеджер собирает целиком: это снимок ссылок на задачи, по одной на задачу,
+     * а не копия JSON. Ограничить и его можно только постраничным запросом (limit/after, {@link #sendPage}).
+     * Одиночный объект сериализуется в байты один раз, чтобы отдать Content-Length. Сжатие, если клиент его
+     * принимает, выбирает {@link ResponseCompression}.
+     * <p>
+     * Если сериализация коллекции упала, поток не закрывается: закрытие отправило бы начало как целый ответ 200.
+     * Недописанное тело отбрасывается, и, пока заголовки не ушли, {@link Router} отвечает 500.
+     */
+    protected void sendJson(HttpExchange exchange, Object data, int statusCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        if (!(data instanceof Collection)) {
+            byte[] response = gson.toJson(data).getBytes(StandardCharsets.UTF_8);
+            try {
+                compression.send(exchange, statusCode, response);
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        OutputStream body = compression.open(exchange, statusCode);
+        JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(body,
+                StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+        try {
+            gson.toJson(data, data.getClass(), writer);
+        } catch (RuntimeException e) {
+            ResponseCompression.discard(body);
+            throw e;
+        }
         try {
-            handleRequest(exchange);
-        } catch (NotFoundException e) {
-            sendNotFound(exchange);
-        } catch (TasksOverlapException e) {
-            sendHasInteractions(exchange);
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendInternalError(exchange);
+            writer.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Условный GET: ставит слабый ETag по номеру версии и, если клиент прислал его в If-None-Match, сразу
+     * отвечает 304 без тела. Вызывается до запроса данных и сериализации, поэтому неизменившийся опрос почти
+     * ничего не стоит. Возвращает true, если ответ уже отправлен.
+     */
+    protected boolean notModified(HttpExchange exchange, long version) throws IOException {
+        String etag = "W/\"" + EPOCH + "-" + version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // сравнение слабое: метка W/ не учитывается
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return true;
+            }
         }
+        return false;
     }
 
-    protected abstract void handleRequest(HttpExchange exchange) throws IOException;
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
 
-    protected void sendJson(HttpExchange exchange, Object data, int statusCode) throws IOException {
-        String response = gson.toJson(data);
-        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, response.getBytes().length);
-        exchange.getResponseBody().write(response.getBytes());
-        exchange.close();
+    /**
+     * Отправляет страницу из не больше limit элементов. Менеджер запрашивается на один элемент больше:
+     * если он нашёлся, страница не последняя, и курсор её последнего элемента уходит в X-Next-Cursor.
+     */
+    protected <T> void sendPage(HttpExchange exchange, List<T> items, int limit, Function<T, String> cursor)
+            throws IOException {
+        List<T> page = items;
+        if (items.size() > limit) {
+            page = items.subList(0, limit);
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, cursor.apply(page.get(limit - 1)));
+        }
+        sendJson(exchange, page, 200);
     }
 
-    protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
+    protected static void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
         byte[] response = text.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().set("Content-Type", "text/plain;charset=utf-8");
         exchange.sendResponseHeaders(statusCode, response.length);
@@ -49,33 +132,26 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
-    protected void sendNotFound(HttpExchange exchange) throws IOException {
+    protected static void sendNotFound(HttpExchange exchange) throws IOException {
         sendText(exchange, "Not Found", 404);
     }
 
-    protected void sendHasInteractions(HttpExchange exchange) throws IOException {
+    protected static void sendBadRequest(HttpExchange exchange, String message) throws IOException {
+        sendText(exchange, message != null ? message : "Bad Request", 400);
+    }
+
+    protected static void sendHasInteractions(HttpExchange exchange) throws IOException {
         sendText(exchange, "Tasks overlap", 406);
     }
 
-    protected void sendInternalError(HttpExchange exchange) throws IOException {
+    protected static void sendInternalError(HttpExchange exchange) throws IOException {
         System.err.println("Внутренняя ошибка сервера: " + exchange.getRequestURI());
         sendText(exchange, "Internal Server Error", 500);
     }
 
     protected <T> T parseJsonRequest(HttpExchange exchange, Class<T> clazz) throws IOException {
-        try (InputStream input = exchange.getRequestBody()) {
-            String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        try (Reader body = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
             return gson.fromJson(body, clazz);
         }
     }
-
-    protected int extractIdFromPath(String path) {
-        String[] parts = path.split("/");
-        String idStr = parts[parts.length - 1];
-        try {
-            return Integer.parseInt(idStr);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("ID должен быть числом");
-        }
-    }
 }
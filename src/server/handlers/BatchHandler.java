@@ -0,0 +1,89 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import exceptions.BadRequestException;
+import manager.BatchOperation;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * POST /batch принимает массив операций вида {"action": "CREATE", "type": "TASK", "task": {...}}
+ * или {"action": "DELETE", "type": "EPIC", "id": 3} и применяет их одним пакетом.
+ * В ответ возвращаются id затронутых задач в порядке операций.
+ */
+public class BatchHandler extends BaseHttpHandler {
+    private final TaskManager taskManager;
+
+    public BatchHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * POST /batch
+     */
+    public void applyBatch(HttpExchange exchange, PathParams params) throws IOException {
+        List<BatchOperation> operations = parseOperations(parseJsonRequest(exchange, JsonArray.class));
+        taskManager.applyBatch(operations);
+
+        List<Integer> ids = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            ids.add(operation.getId());
+        }
+        sendJson(exchange, ids, 200);
+    }
+
+    private List<BatchOperation> parseOperations(JsonArray body) {
+        if (body == null) {
+            throw new BadRequestException("Ожидается массив операций");
+        }
+        List<BatchOperation> operations = new ArrayList<>(body.size());
+        try {
+            for (JsonElement element : body) {
+                operations.add(parseOperation(element.getAsJsonObject()));
+            }
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+            // IllegalArgumentException бросает valueOf для неизвестного действия или типа
+            throw new BadRequestException("Некорректная операция пакета");
+        }
+        return operations;
+    }
+
+    private BatchOperation parseOperation(JsonObject json) {
+        BatchOperation.Action action = BatchOperation.Action.valueOf(
+                json.get("action").getAsString().toUpperCase());
+        TaskType type = TaskType.valueOf(json.get("type").getAsString().toUpperCase());
+
+        if (action == BatchOperation.Action.DELETE) {
+            return BatchOperation.delete(type, json.get("id").getAsInt());
+        }
+        Task task = gson.fromJson(json.get("task"), taskClass(type));
+        if (task == null) {
+            throw new BadRequestException("Операция " + action + " без задачи");
+        }
+        return action == BatchOperation.Action.CREATE ? BatchOperation.create(task) : BatchOperation.update(task);
+    }
+
+    private static Class<? extends Task> taskClass(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return Epic.class;
+            case SUBTASK:
+                return Subtask.class;
+            default:
+                return Task.class;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package server.handlers;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import exceptions.NotFoundException;
-import exceptions.TasksOverlapException;
 import manager.TaskManager;
 import tasks.Epic;
 
@@ -13,65 +12,67 @@ import java.util.List;
 public class EpicsHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
-    public EpicsHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+    public EpicsHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
         this.taskManager = taskManager;
     }
 
-    @Override
-    protected void handleRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        switch (method) {
-            case "GET":
-                if (path.equals("/epics")) {
-                    List<Epic> epics = taskManager.getEpics();
-                    sendJson(exchange, epics, 200);
-                } else if (path.matches(".*/epics/\\d+")) {
-                    int id = extractIdFromPath(path);
-                    try {
-                        Epic epic = taskManager.getEpicById(id).orElseThrow();
-                        sendJson(exchange, epic, 200);
-                    } catch (Exception e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
-
-            case "POST":
-                try {
-                    Epic epic = parseJsonRequest(exchange, Epic.class);
-                    if (epic.getId() == 0) {
-                        taskManager.createEpic(epic);
-                        sendJson(exchange, epic, 201);
-                    } else {
-                        taskManager.updateEpic(epic);
-                        sendJson(exchange, epic, 200);
-                    }
-                } catch (TasksOverlapException e) {
-                    sendHasInteractions(exchange);
-                }
-                break;
+    /**
+     * GET /epics
+     */
+    public void getEpics(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "status", "from", "to", "limit", "after");
+        if (notModified(exchange, taskManager.getVersion())) {
+            return;
+        }
+        if (query.hasPage()) {
+            int limit = query.getPageLimit();
+            sendPage(exchange, taskManager.getEpics(query.getAfterId(), limit + 1), limit,
+                    epic -> String.valueOf(epic.getId()));
+            return;
+        }
+        List<Epic> epics = query.hasStatus()
+                ? taskManager.getEpicsByStatus(query.getStatus())
+                : taskManager.getEpics();
+        if (query.hasTimeWindow()) {
+            // эпиков нет в расписании: их время выводится из подзадач, окно проверяется по списку
+            epics = query.filter(epics);
+        }
+        sendJson(exchange, epics, 200);
+    }
 
-            case "DELETE":
-                if (path.matches(".*/epics/\\d+")) {
-                    int id = extractIdFromPath(path);
-                    try {
-                        taskManager.deleteEpic(id);
-                        sendText(exchange, "Эпик удален: " + id, 200);
-                    } catch (NotFoundException e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
+    /**
+     * GET /epics/{id}
+     */
+    public void getEpic(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        Epic epic = taskManager.getEpicById(id, clientId(exchange))
+                .orElseThrow(() -> new NotFoundException("Epic " + id + " not found"));
+        if (!notModified(exchange, epic.getVersion())) {
+            sendJson(exchange, epic, 200);
+        }
+    }
 
-            default:
-                sendText(exchange, "Метод не поддерживается", 405);
+    /**
+     * POST /epics: без id эпик создаётся, с id — обновляется.
+     */
+    public void saveEpic(HttpExchange exchange, PathParams params) throws IOException {
+        Epic epic = parseJsonRequest(exchange, Epic.class);
+        if (epic.getId() == 0) {
+            taskManager.createEpic(epic);
+            sendJson(exchange, epic, 201);
+        } else {
+            taskManager.updateEpic(epic);
+            sendJson(exchange, epic, 200);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * DELETE /epics/{id}
+     */
+    public void deleteEpic(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        taskManager.deleteEpic(id);
+        sendText(exchange, "Эпик удален: " + id, 200);
+    }
+}
@@ -2,6 +2,7 @@ package server.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import exceptions.BadRequestException;
 import manager.TaskManager;
 import tasks.Task;
 
@@ -9,22 +10,41 @@ import java.io.IOException;
 import java.util.List;
 
 public class HistoryHandler extends BaseHttpHandler {
+    private static final int DEFAULT_TOP = 10;
+
     private final TaskManager taskManager;
 
-    public HistoryHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+    public HistoryHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
         this.taskManager = taskManager;
     }
 
-    @Override
-    protected void handleRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-
-        if ("GET".equals(method)) {
-            List<Task> history = taskManager.getHistory();
-            sendJson(exchange, history, 200);
-        } else {
-            sendText(exchange, "Метод не поддерживается", 405);
+    /**
+     * GET /history
+     */
+    public void getHistory(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "limit", "after");
+        if (query.hasPage()) {
+            int limit = query.getPageLimit();
+            List<Task> page;
+            try {
+                page = taskManager.getHistory(clientId(exchange), query.getAfterId(), limit + 1);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Курсор устарел: задачи " + query.getAfterId() + " нет в истории");
+            }
+            sendPage(exchange, page, limit, task -> String.valueOf(task.getId()));
+            return;
         }
+        List<Task> history = taskManager.getHistory(clientId(exchange));
+        sendJson(exchange, history, 200);
+    }
+
+    /**
+     * GET /history/top
+     */
+    public void getTopViewed(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "k");
+        int k = query.parsePositiveInt("k", DEFAULT_TOP);
+        sendJson(exchange, taskManager.getTopViewed(k), 200);
     }
-}
\ No newline at end of file
+}
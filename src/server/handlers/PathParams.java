@@ -0,0 +1,25 @@
+package server.handlers;
+
+/**
+ * Параметры пути, разобранные {@link Router}: имена из шаблона маршрута и их числовые значения.
+ */
+public final class PathParams {
+    static final PathParams EMPTY = new PathParams(new String[0], new int[0]);
+
+    private final String[] names;
+    private final int[] values;
+
+    PathParams(String[] names, int[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    public int getInt(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        throw new IllegalStateException("В маршруте нет параметра " + name);
+    }
+}
@@ -2,29 +2,84 @@ package server.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import exceptions.BadRequestException;
 import manager.TaskManager;
+import tasks.Subtask;
 import tasks.Task;
+import tasks.TaskStatus;
+import tasks.TimeSlot;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
-    public PrioritizedHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
         this.taskManager = taskManager;
     }
 
-    @Override
-    protected void handleRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-
-        if ("GET".equals(method)) {
-            List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-            sendJson(exchange, prioritizedTasks, 200);
+    /**
+     * GET /prioritized
+     */
+    public void getPrioritized(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "type", "status", "from", "to", "limit", "after");
+        if (notModified(exchange, taskManager.getVersion())) {
+            return;
+        }
+        if (query.hasPage()) {
+            int limit = query.getPageLimit();
+            sendPage(exchange, taskManager.getPrioritizedTasks(query.getAfterTime(), query.getAfterTimeId(),
+                    limit + 1), limit, task -> task.getStartTime() + "|" + task.getId());
+            return;
+        }
+        List<Task> prioritizedTasks;
+        if (query.hasType()) {
+            prioritizedTasks = taskManager.getPrioritizedTasks(query.getType(), query.getFrom(), query.getTo());
+        } else if (query.hasStatus()) {
+            prioritizedTasks = scheduledByStatus(query.getStatus());
+        } else if (query.hasTimeWindow()) {
+            prioritizedTasks = taskManager.getPrioritizedTasks(query.getFrom(), query.getTo());
         } else {
-            sendText(exchange, "Метод не поддерживается", 405);
+            prioritizedTasks = taskManager.getPrioritizedTasks();
+        }
+        sendJson(exchange, query.filter(prioritizedTasks), 200);
+    }
+
+    // задачи и подзадачи с этим статусом из индексов статусов; окно и порядок расписания накладываются потом
+    private List<Task> scheduledByStatus(TaskStatus status) {
+        List<Task> tasks = new ArrayList<>();
+        for (Task task : taskManager.getTasksByStatus(status)) {
+            if (task.getStartTime() != null) {
+                tasks.add(task);
+            }
+        }
+        for (Subtask subtask : taskManager.getSubtasksByStatus(status)) {
+            if (subtask.getStartTime() != null) {
+                tasks.add(subtask);
+            }
+        }
+        tasks.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+        return tasks;
+    }
+
+    /**
+     * GET /prioritized/free-slots
+     */
+    public void getFreeSlots(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "duration", "from", "to", "limit");
+        if (query.get("duration") == null) {
+            throw new BadRequestException("Не задан параметр duration");
         }
+        Duration duration = Duration.ofMinutes(query.parsePositiveInt("duration", 0));
+        LocalDateTime from = query.getFrom() != null ? query.getFrom() : LocalDateTime.now();
+        int limit = query.parsePositiveInt("limit", 1);
+        List<TimeSlot> slots = taskManager.findFreeSlots(duration, from, query.getTo(), limit);
+        sendJson(exchange, slots, 200);
     }
-}
\ No newline at end of file
+}
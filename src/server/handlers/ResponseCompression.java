@@ -0,0 +1,230 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжатие ответов по Accept-Encoding: gzip или deflate (zlib), при равном весе предпочитается gzip.
+ * <p>
+ * Ответ короче порога уходит как есть с Content-Length. Длинный ответ пишется прямо в компрессор поверх тела
+ * ответа с chunked-кодированием: второго буфера на весь ответ нет, до порога байты копятся только затем,
+ * чтобы решить, сжимать ли их.
+ */
+public class ResponseCompression {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private static final int COMPRESSOR_BUFFER_SIZE = 8192;
+
+    private final int level;
+    private final int threshold;
+
+    /**
+     * level — уровень Deflater от 1 до 9, 0 выключает сжатие; threshold — с какой длины ответа в байтах сжимать.
+     */
+    public ResponseCompression(int level, int threshold) {
+        this.level = level;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Отправляет готовое тело целиком, сжимая его, если оно не короче порога.
+     */
+    void send(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        String encoding = negotiate(exchange);
+        if (encoding == null || body.length < threshold) {
+            exchange.sendResponseHeaders(statusCode, body.length);
+            exchange.getResponseBody().write(body);
+            return;
+        }
+        try (OutputStream out = startCompressed(exchange, statusCode, encoding)) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Поток для тела неизвестной длины. Заголовки отправляются, когда станет ясно, сжимать ли ответ:
+     * при первом превышении порога или при закрытии потока. Поток нужно закрыть, а если тело не удалось
+     * дописать — передать в {@link #discard(OutputStream)} вместо закрытия.
+     */
+    OutputStream open(HttpExchange exchange, int statusCode) throws IOException {
+        String encoding = negotiate(exchange);
+        if (encoding == null) {
+            exchange.sendResponseHeaders(statusCode, 0);
+            return exchange.getResponseBody();
+        }
+        return new DeferredBody(exchange, statusCode, encoding);
+    }
+
+    /**
+     * Отбрасывает недописанное тело из {@link #open}. Если заголовки ещё не ушли, ответ остаётся неотправленным,
+     * и вызывающий может ответить ошибкой. Если ушли, сжатый поток не завершается: без окончания gzip или zlib
+     * клиент не примет оборванное тело за целое.
+     */
+    static void discard(OutputStream body) {
+        if (body instanceof DeferredBody) {
+            ((DeferredBody) body).discard();
+        }
+    }
+
+    // выбранное сжатие или null, если сжатие выключено или клиент его не принимает
+    String negotiate(HttpExchange exchange) {
+        if (level == 0) {
+            return null;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return null;
+        }
+        // -1 — кодировка не упомянута; "*" задаёт вес всем неупомянутым
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] parameters = part.split(";");
+            switch (parameters[0].trim().toLowerCase()) {
+                case GZIP:
+                    gzip = weight(parameters);
+                    break;
+                case DEFLATE:
+                    deflate = weight(parameters);
+                    break;
+                case "*":
+                    any = weight(parameters);
+                    break;
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private static double weight(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private OutputStream startCompressed(HttpExchange exchange, int statusCode, String encoding) throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(statusCode, 0);
+        OutputStream body = exchange.getResponseBody();
+        return encoding.equals(GZIP) ? new GzipStream(body, level) : new ZlibStream(body, level);
+    }
+
+    /**
+     * Копит начало ответа, пока оно не длиннее порога. Превысил — заголовки уходят со сжатием, и дальше всё
+     * пишется в компрессор; закрылся раньше — ответ уходит несжатым с Content-Length.
+     */
+    private final class DeferredBody extends OutputStream {
+        private final HttpExchange exchange;
+        private final int statusCode;
+        private final String encoding;
+        private byte[] pending = new byte[threshold];
+        private int pendingLength;
+        private OutputStream out;
+        private boolean discarded;
+
+        DeferredBody(HttpExchange exchange, int statusCode, String encoding) {
+            this.exchange = exchange;
+            this.statusCode = statusCode;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (discarded) {
+                throw new IOException("Тело ответа отброшено");
+            }
+            if (out == null) {
+                if (pendingLength + len <= threshold) {
+                    System.arraycopy(b, off, pending, pendingLength, len);
+                    pendingLength += len;
+                    return;
+                }
+                out = startCompressed(exchange, statusCode, encoding);
+                out.write(pending, 0, pendingLength);
+                pending = null;
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        void discard() {
+            pending = null;
+            pendingLength = 0;
+            discarded = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (discarded) {
+                return;
+            }
+            if (out != null) {
+                out.close();
+                return;
+            }
+            exchange.sendResponseHeaders(statusCode, pendingLength > 0 ? pendingLength : -1);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(pending, 0, pendingLength);
+            }
+        }
+    }
+
+    private static final class GzipStream extends GZIPOutputStream {
+        GzipStream(OutputStream out, int level) throws IOException {
+            super(out, COMPRESSOR_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+
+    // Deflater передаётся снаружи, поэтому DeflaterOutputStream сам его не освобождает
+    private static final class ZlibStream extends DeflaterOutputStream {
+        ZlibStream(OutputStream out, int level) {
+            super(out, new Deflater(level), COMPRESSOR_BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
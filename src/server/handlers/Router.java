@@ -0,0 +1,205 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exceptions.BadRequestException;
+import exceptions.NotFoundException;
+import exceptions.TasksOverlapException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Общий для всех обработчиков разбор пути. Маршруты вида "/tasks/{id}" регистрируются один раз при запуске
+ * сервера и складываются в дерево по сегментам пути; параметр в фигурных скобках — целое неотрицательное число.
+ * <p>
+ * Поиск идёт по символам пути без split, регулярных выражений и подстрок: сегмент сравнивается с ребром
+ * дерева через regionMatches, число разбирается на месте. Постоянный сегмент проверяется раньше параметра.
+ * Путь, которого нет в дереве, получает 404, известный путь с другим методом — 405.
+ * <p>
+ * Здесь же исключения обработчиков превращаются в коды ответа: NotFoundException — 404,
+ * BadRequestException — 400 с сообщением для клиента, TasksOverlapException — 406, остальное — 500.
+ * IllegalArgumentException из менеджера — ошибка сервера: её текст клиенту не предназначен.
+ */
+public class Router implements HttpHandler {
+
+    /**
+     * Обработчик маршрута: получает запрос и уже разобранные параметры пути.
+     */
+    @FunctionalInterface
+    public interface Endpoint {
+        void handle(HttpExchange exchange, PathParams params) throws IOException;
+    }
+
+    private final Node root = new Node();
+    private int maxParams;
+
+    /**
+     * Регистрирует маршрут. Шаблон начинается с "/", сегменты непустые, параметр занимает сегмент целиком.
+     */
+    public Router add(String method, String pattern, Endpoint endpoint) {
+        if (!pattern.startsWith("/") || pattern.length() == 1 || pattern.endsWith("/")) {
+            throw new IllegalArgumentException("Некорректный шаблон маршрута: " + pattern);
+        }
+        Node node = root;
+        List<String> names = new ArrayList<>();
+        for (String segment : pattern.substring(1).split("/", -1)) {
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Пустой сегмент в шаблоне маршрута: " + pattern);
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || names.contains(name)) {
+                    throw new IllegalArgumentException("Некорректный параметр в шаблоне маршрута: " + pattern);
+                }
+                names.add(name);
+                node = node.paramChild();
+            } else {
+                node = node.staticChild(segment);
+            }
+        }
+        node.addEndpoint(method, endpoint, names.toArray(new String[0]), pattern);
+        maxParams = Math.max(maxParams, names.size());
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            dispatch(exchange);
+        } catch (NotFoundException e) {
+            BaseHttpHandler.sendNotFound(exchange);
+        } catch (TasksOverlapException e) {
+            BaseHttpHandler.sendHasInteractions(exchange);
+        } catch (BadRequestException e) {
+            BaseHttpHandler.sendBadRequest(exchange, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (exchange.getResponseCode() != -1) {
+                // заголовки уже ушли вместе с началом потокового ответа, клиент увидит оборванное тело
+                exchange.close();
+                return;
+            }
+            BaseHttpHandler.sendInternalError(exchange);
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int[] values = new int[maxParams];
+        Node node = path.startsWith("/") ? match(root, path, 1, values, 0) : null;
+        if (node == null) {
+            BaseHttpHandler.sendNotFound(exchange);
+            return;
+        }
+        int index = node.indexOf(exchange.getRequestMethod());
+        if (index < 0) {
+            BaseHttpHandler.sendText(exchange, "Метод не поддерживается", 405);
+            return;
+        }
+        String[] names = node.paramNames[index];
+        PathParams params = names.length == 0 ? PathParams.EMPTY : new PathParams(names, values);
+        node.endpoints[index].handle(exchange, params);
+    }
+
+    // узел, в котором заканчивается путь с позиции start, или null; значения параметров пишутся в values
+    private static Node match(Node node, String path, int start, int[] values, int depth) {
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        if (length == 0) {
+            return null;
+        }
+        boolean last = end == path.length();
+        for (int i = 0; i < node.segments.length; i++) {
+            String segment = node.segments[i];
+            if (segment.length() == length && path.regionMatches(start, segment, 0, length)) {
+                Node found = last ? node.children[i] : match(node.children[i], path, end + 1, values, depth);
+                if (found != null && found.methods.length > 0) {
+                    return found;
+                }
+            }
+        }
+        if (node.param == null) {
+            return null;
+        }
+        int value = parseId(path, start, end);
+        if (value < 0) {
+            return null;
+        }
+        values[depth] = value;
+        Node found = last ? node.param : match(node.param, path, end + 1, values, depth + 1);
+        return found != null && found.methods.length > 0 ? found : null;
+    }
+
+    // неотрицательное число из символов [start, end) или -1, если там не только цифры или оно не влезает в int
+    static int parseId(CharSequence path, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = path.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static final class Node {
+        private String[] segments = new String[0];
+        private Node[] children = new Node[0];
+        private Node param;
+
+        private String[] methods = new String[0];
+        private Endpoint[] endpoints = new Endpoint[0];
+        private String[][] paramNames = new String[0][];
+
+        Node staticChild(String segment) {
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = new Node();
+            return children[children.length - 1];
+        }
+
+        Node paramChild() {
+            if (param == null) {
+                param = new Node();
+            }
+            return param;
+        }
+
+        void addEndpoint(String method, Endpoint endpoint, String[] names, String pattern) {
+            if (indexOf(method) >= 0) {
+                throw new IllegalArgumentException("Маршрут уже зарегистрирован: " + method + " " + pattern);
+            }
+            methods = Arrays.copyOf(methods, methods.length + 1);
+            endpoints = Arrays.copyOf(endpoints, endpoints.length + 1);
+            paramNames = Arrays.copyOf(paramNames, paramNames.length + 1);
+            methods[methods.length - 1] = method;
+            endpoints[endpoints.length - 1] = endpoint;
+            paramNames[paramNames.length - 1] = names;
+        }
+
+        int indexOf(String method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
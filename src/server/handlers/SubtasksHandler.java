@@ -3,9 +3,10 @@ package server.handlers;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import exceptions.NotFoundException;
-import exceptions.TasksOverlapException;
 import manager.TaskManager;
 import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskType;
 
 import java.io.IOException;
 import java.util.List;
@@ -13,73 +14,77 @@ import java.util.List;
 public class SubtasksHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
-    public SubtasksHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+    public SubtasksHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
         this.taskManager = taskManager;
     }
 
-    @Override
-    protected void handleRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        switch (method) {
-            case "GET":
-                if (path.equals("/subtasks")) {
-                    List<Subtask> subtasks = taskManager.getSubtasks();
-                    sendJson(exchange, subtasks, 200);
-                } else if (path.matches(".*/subtasks/\\d+")) {
-                    try {
-                        int id = extractIdFromPath(path);
-                        Subtask subtask = taskManager.getSubtaskById(id).orElseThrow();
-                        sendJson(exchange, subtask, 200);
-                    } catch (Exception e) {
-                        sendNotFound(exchange);
-                    }
-                } else if (path.matches(".*/subtasks/epic/\\d+")) {
-                    try {
-                        int epicId = extractIdFromPath(path);
-                        List<Subtask> epicSubtasks = taskManager.getEpicSubtasks(epicId);
-                        sendJson(exchange, epicSubtasks, 200);
-                    } catch (NotFoundException e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
+    /**
+     * GET /subtasks
+     */
+    public void getSubtasks(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "epic", "status", "from", "to", "limit", "after");
+        if (notModified(exchange, taskManager.getVersion())) {
+            return;
+        }
+        if (query.hasPage()) {
+            int limit = query.getPageLimit();
+            sendPage(exchange, taskManager.getSubtasks(query.getAfterId(), limit + 1), limit,
+                    subtask -> String.valueOf(subtask.getId()));
+            return;
+        }
+        List<? extends Task> subtasks;
+        if (query.hasEpic()) {
+            subtasks = query.filter(taskManager.getEpicSubtasks(query.getEpicId()));
+        } else if (query.hasTimeWindow()) {
+            subtasks = query.filter(taskManager.getPrioritizedTasks(TaskType.SUBTASK, query.getFrom(), query.getTo()));
+        } else if (query.hasStatus()) {
+            subtasks = taskManager.getSubtasksByStatus(query.getStatus());
+        } else {
+            subtasks = taskManager.getSubtasks();
+        }
+        sendJson(exchange, subtasks, 200);
+    }
 
-            case "POST":
-                try {
-                    Subtask subtask = parseJsonRequest(exchange, Subtask.class);
-                    if (subtask.getId() == 0) {
-                        taskManager.createSubtask(subtask);
-                        sendJson(exchange, subtask, 201);
-                    } else {
-                        taskManager.updateSubtask(subtask); // обновляет подзадачу и эпик
-                        sendJson(exchange, subtask, 200);
-                    }
-                } catch (TasksOverlapException e) {
-                    sendHasInteractions(exchange);
-                }
-                break;
+    /**
+     * GET /subtasks/{id}
+     */
+    public void getSubtask(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        Subtask subtask = taskManager.getSubtaskById(id, clientId(exchange))
+                .orElseThrow(() -> new NotFoundException("Subtask " + id + " not found"));
+        if (!notModified(exchange, subtask.getVersion())) {
+            sendJson(exchange, subtask, 200);
+        }
+    }
 
-            case "DELETE":
-                if (path.matches(".*/subtasks/\\d+")) {
-                    try {
-                        int id = extractIdFromPath(path);
-                        taskManager.deleteSubtask(id);
-                        sendText(exchange, "Подзадача удалена: " + id, 200);
-                    } catch (Exception e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
+    /**
+     * GET /subtasks/epic/{epicId} и GET /epics/{epicId}/subtasks
+     */
+    public void getEpicSubtasks(HttpExchange exchange, PathParams params) throws IOException {
+        sendJson(exchange, taskManager.getEpicSubtasks(params.getInt("epicId")), 200);
+    }
 
-            default:
-                sendText(exchange, "Метод не поддерживается", 405);
+    /**
+     * POST /subtasks: без id подзадача создаётся, с id — обновляется вместе с эпиком.
+     */
+    public void saveSubtask(HttpExchange exchange, PathParams params) throws IOException {
+        Subtask subtask = parseJsonRequest(exchange, Subtask.class);
+        if (subtask.getId() == 0) {
+            taskManager.createSubtask(subtask);
+            sendJson(exchange, subtask, 201);
+        } else {
+            taskManager.updateSubtask(subtask); // обновляет подзадачу и эпик
+            sendJson(exchange, subtask, 200);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * DELETE /subtasks/{id}
+     */
+    public void deleteSubtask(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        taskManager.deleteSubtask(id);
+        sendText(exchange, "Подзадача удалена: " + id, 200);
+    }
+}
@@ -0,0 +1,222 @@
+package server.handlers;
+
+import exceptions.BadRequestException;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+import tasks.TaskType;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Фильтры списка задач из строки запроса: status, type, from, to (начало задачи в [from, to)) и epic.
+ * Постраничный вывод задаётся параметрами limit и after и с фильтрами не сочетается. Курсор — id задачи или,
+ * для расписания, начало и id задачи через «|»; курсор из одного начала пропускает все задачи с этим началом.
+ * Каждый обработчик перечисляет параметры, которые он понимает: неизвестный параметр, как и некорректное
+ * значение, приводит к BadRequestException, то есть к ответу 400.
+ */
+class TaskQuery {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final Map<String, String> params;
+    private final TaskStatus status;
+    private final TaskType type;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Integer epicId;
+
+    private TaskQuery(Map<String, String> params) {
+        this.params = params;
+        this.status = params.containsKey("status") ? parseEnum(TaskStatus.class, "status") : null;
+        this.type = params.containsKey("type") ? parseEnum(TaskType.class, "type") : null;
+        this.from = params.containsKey("from") ? parseDateTime("from") : null;
+        this.to = params.containsKey("to") ? parseDateTime("to") : null;
+        this.epicId = params.containsKey("epic") ? parseInt("epic") : null;
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new BadRequestException("Параметр from должен быть не позже to");
+        }
+    }
+
+    /**
+     * Разбор строки запроса, в которой допустимы только параметры supported.
+     */
+    static TaskQuery parse(URI uri, String... supported) {
+        Map<String, String> params = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                String name = separator >= 0 ? pair.substring(0, separator) : pair;
+                String value = separator >= 0 ? pair.substring(separator + 1) : "";
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        for (String name : params.keySet()) {
+            if (!Arrays.asList(supported).contains(name)) {
+                throw new BadRequestException("Неподдерживаемый параметр запроса: " + name);
+            }
+        }
+        return new TaskQuery(params);
+    }
+
+    String get(String name) {
+        return params.get(name);
+    }
+
+    TaskType getType() {
+        return type;
+    }
+
+    TaskStatus getStatus() {
+        return status;
+    }
+
+    LocalDateTime getFrom() {
+        return from;
+    }
+
+    LocalDateTime getTo() {
+        return to;
+    }
+
+    Integer getEpicId() {
+        return epicId;
+    }
+
+    boolean hasStatus() {
+        return status != null;
+    }
+
+    boolean hasType() {
+        return type != null;
+    }
+
+    boolean hasTimeWindow() {
+        return from != null || to != null;
+    }
+
+    boolean hasEpic() {
+        return epicId != null;
+    }
+
+    boolean hasPage() {
+        return params.containsKey("limit") || params.containsKey("after");
+    }
+
+    int getPageLimit() {
+        if (status != null || type != null || hasTimeWindow() || epicId != null) {
+            throw new BadRequestException("Постраничный вывод не сочетается с фильтрами");
+        }
+        if (!params.containsKey("limit")) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int limit = parseInt("limit");
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    int getAfterId() {
+        return params.containsKey("after") ? parseInt("after") : 0;
+    }
+
+    LocalDateTime getAfterTime() {
+        if (!params.containsKey("after")) {
+            return null;
+        }
+        String after = params.get("after");
+        int separator = after.indexOf('|');
+        return parseDateTime("after", separator >= 0 ? after.substring(0, separator) : after);
+    }
+
+    int getAfterTimeId() {
+        String after = params.get("after");
+        int separator = after != null ? after.indexOf('|') : -1;
+        if (separator < 0) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            return Integer.parseInt(after.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Курсор after должен иметь вид начало|id");
+        }
+    }
+
+    boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (type != null && task.getType() != type) {
+            return false;
+        }
+        if (epicId != null && !(task instanceof Subtask && ((Subtask) task).getEpicId() == epicId)) {
+            return false;
+        }
+        if (from != null || to != null) {
+            LocalDateTime startTime = task.getStartTime();
+            if (startTime == null
+                    || (from != null && startTime.isBefore(from))
+                    || (to != null && !startTime.isBefore(to))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    <T extends Task> List<T> filter(List<T> tasks) {
+        return tasks.stream().filter(this::matches).toList();
+    }
+
+    /**
+     * Положительное число из параметра name или defaultValue, если параметра нет.
+     */
+    int parsePositiveInt(String name, int defaultValue) {
+        if (!params.containsKey(name)) {
+            return defaultValue;
+        }
+        int value = parseInt(name);
+        if (value <= 0) {
+            throw new BadRequestException("Параметр " + name + " должен быть положительным");
+        }
+        return value;
+    }
+
+    int parseInt(String name) {
+        try {
+            return Integer.parseInt(params.get(name));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Параметр " + name + " должен быть числом");
+        }
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> enumClass, String name) {
+        try {
+            return Enum.valueOf(enumClass, params.get(name).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестное значение параметра " + name + ": " + params.get(name));
+        }
+    }
+
+    private LocalDateTime parseDateTime(String name) {
+        return parseDateTime(name, params.get(name));
+    }
+
+    private static LocalDateTime parseDateTime(String name, String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Параметр " + name + " должен быть датой в формате ISO");
+        }
+    }
+}
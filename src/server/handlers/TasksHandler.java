@@ -2,83 +2,87 @@ package server.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
-import exceptions.TasksOverlapException;
+import exceptions.NotFoundException;
 import manager.TaskManager;
 import tasks.Task;
+import tasks.TaskType;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 
 public class TasksHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
-    public TasksHandler(TaskManager taskManager, Gson gson) {
-        super(gson);
+    public TasksHandler(TaskManager taskManager, Gson gson, ResponseCompression compression) {
+        super(gson, compression);
         this.taskManager = taskManager;
     }
 
-    @Override
-    protected void handleRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
+    /**
+     * GET /tasks
+     */
+    public void getTasks(HttpExchange exchange, PathParams params) throws IOException {
+        TaskQuery query = TaskQuery.parse(exchange.getRequestURI(), "status", "from", "to", "limit", "after");
+        if (notModified(exchange, taskManager.getVersion())) {
+            return;
+        }
+        if (query.hasPage()) {
+            int limit = query.getPageLimit();
+            sendPage(exchange, taskManager.getTasks(query.getAfterId(), limit + 1), limit,
+                    task -> String.valueOf(task.getId()));
+            return;
+        }
+        List<Task> tasks;
+        if (query.hasTimeWindow()) {
+            tasks = query.filter(taskManager.getPrioritizedTasks(TaskType.TASK, query.getFrom(), query.getTo()));
+        } else if (query.hasStatus()) {
+            tasks = taskManager.getTasksByStatus(query.getStatus());
+        } else {
+            tasks = taskManager.getTasks();
+        }
+        sendJson(exchange, tasks, 200);
+    }
 
-        switch (method) {
-            case "GET":
-                if (path.equals("/tasks")) {
-                    List<Task> tasks = taskManager.getTasks();
-                    sendJson(exchange, tasks, 200);
-                } else if (path.matches(".*/tasks/\\d+")) {
-                    try {
-                        int id = extractIdFromPath(path);
-                        Optional<Task> taskOptional = taskManager.getTaskById(id);
-                        if (taskOptional.isPresent()) {
-                            sendJson(exchange, taskOptional.get(), 200);
-                        } else {
-                            sendNotFound(exchange);
-                        }
-                    } catch (Exception e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
+    /**
+     * GET /tasks/{id}
+     */
+    public void getTask(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        Task task = taskManager.getTaskById(id, clientId(exchange))
+                .orElseThrow(() -> new NotFoundException("Task " + id + " not found"));
+        if (!notModified(exchange, task.getVersion())) {
+            sendJson(exchange, task, 200);
+        }
+    }
 
-            case "POST":
-                try {
-                    Task task = parseJsonRequest(exchange, Task.class);
-                    if (task.getId() == 0) {
-                        taskManager.createTask(task);
-                        sendJson(exchange, task, 201);
-                    } else {
-                        taskManager.updateTask(task);
-                        sendJson(exchange, task, 200);
-                    }
-                } catch (TasksOverlapException e) {
-                    sendHasInteractions(exchange);
-                }
-                break;
+    /**
+     * POST /tasks: без id задача создаётся, с id — обновляется.
+     */
+    public void saveTask(HttpExchange exchange, PathParams params) throws IOException {
+        Task task = parseJsonRequest(exchange, Task.class);
+        if (task.getId() == 0) {
+            taskManager.createTask(task);
+            sendJson(exchange, task, 201);
+        } else {
+            taskManager.updateTask(task);
+            sendJson(exchange, task, 200);
+        }
+    }
 
-            case "DELETE":
-                if (path.equals("/tasks")) {
-                    taskManager.removeAllTasks();
-                    sendText(exchange, "Все задачи удалены", 200);
-                } else if (path.matches(".*/tasks/\\d+")) {
-                    try {
-                        int id = extractIdFromPath(path);
-                        taskManager.deleteTask(id);
-                        sendText(exchange, "Задача удалена: " + id, 200);
-                    } catch (Exception e) {
-                        sendNotFound(exchange);
-                    }
-                } else {
-                    sendNotFound(exchange);
-                }
-                break;
+    /**
+     * DELETE /tasks
+     */
+    public void deleteTasks(HttpExchange exchange, PathParams params) throws IOException {
+        taskManager.removeAllTasks();
+        sendText(exchange, "Все задачи удалены", 200);
+    }
 
-            default:
-                sendText(exchange, "Метод не поддерживается", 405);
-        }
+    /**
+     * DELETE /tasks/{id}
+     */
+    public void deleteTask(HttpExchange exchange, PathParams params) throws IOException {
+        int id = params.getInt("id");
+        taskManager.deleteTask(id);
+        sendText(exchange, "Задача удалена: " + id, 200);
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,25 @@
 package tasks;
 
+import util.IntHashSet;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
 
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private final IntHashSet subtaskIds = new IntHashSet();
     private LocalDateTime endTime;
 
+    // агрегаты по подзадачам: статус и время эпика пересчитываются за O(log n) при изменении одной подзадачи
+    private final transient TreeMap<LocalDateTime, Integer> subtaskStartTimes = new TreeMap<>();
+    private final transient TreeMap<LocalDateTime, Integer> subtaskEndTimes = new TreeMap<>();
+    private transient Duration subtasksDuration = Duration.ZERO;
+    private transient int newSubtasksCount;
+    private transient int doneSubtasksCount;
+
     public Epic(String name, String description) {
         super(name, description, TaskStatus.NEW, Duration.ZERO, null);
     }
@@ -24,10 +34,115 @@ public class Epic extends Task {
         if (other.subtaskIds != null) {
             this.subtaskIds.addAll(other.subtaskIds);
         }
+        if (other.subtaskStartTimes != null) {
+            this.subtaskStartTimes.putAll(other.subtaskStartTimes);
+            this.subtaskEndTimes.putAll(other.subtaskEndTimes);
+            this.subtasksDuration = other.subtasksDuration;
+            this.newSubtasksCount = other.newSubtasksCount;
+            this.doneSubtasksCount = other.doneSubtasksCount;
+        }
+        this.endTime = other.endTime;
+    }
+
+    /**
+     * Копия для чтения: поля эпика и id подзадач без агрегатов по подзадачам, поэтому стоит O(число подзадач)
+     * без копирования деревьев времени. Менять подзадачи у такой копии нельзя: её агрегаты пусты.
+     */
+    public static Epic readOnlyCopy(Epic other) {
+        Epic copy = new Epic(other.getId(), other.getName(), other.getDescription(), other.getStatus(),
+                other.getDuration(), other.getStartTime());
+        copy.setVersion(other.getVersion());
+        copy.subtaskIds.addAll(other.subtaskIds);
+        copy.endTime = other.endTime;
+        return copy;
     }
 
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        return subtaskIds.asList();
+    }
+
+    public void forEachSubtaskId(IntConsumer action) {
+        subtaskIds.forEach(action);
+    }
+
+    public void addSubtask(Subtask subtask) {
+        subtaskIds.add(subtask.getId());
+        include(subtask);
+        applyRollup();
+    }
+
+    public void replaceSubtask(Subtask oldSubtask, Subtask newSubtask) {
+        exclude(oldSubtask);
+        include(newSubtask);
+        applyRollup();
+    }
+
+    public void removeSubtask(Subtask subtask) {
+        subtaskIds.remove(subtask.getId());
+        exclude(subtask);
+        applyRollup();
+    }
+
+    public void clearSubtasks() {
+        subtaskIds.clear();
+        subtaskStartTimes.clear();
+        subtaskEndTimes.clear();
+        subtasksDuration = Duration.ZERO;
+        newSubtasksCount = 0;
+        doneSubtasksCount = 0;
+        applyRollup();
+    }
+
+    private void include(Subtask subtask) {
+        if (subtask.getStatus() == TaskStatus.NEW) {
+            newSubtasksCount++;
+        } else if (subtask.getStatus() == TaskStatus.DONE) {
+            doneSubtasksCount++;
+        }
+        if (subtask.getDuration() != null) {
+            subtasksDuration = subtasksDuration.plus(subtask.getDuration());
+        }
+        addTime(subtaskStartTimes, subtask.getStartTime());
+        addTime(subtaskEndTimes, subtask.getEndTime());
+    }
+
+    private void exclude(Subtask subtask) {
+        if (subtask.getStatus() == TaskStatus.NEW) {
+            newSubtasksCount--;
+        } else if (subtask.getStatus() == TaskStatus.DONE) {
+            doneSubtasksCount--;
+        }
+        if (subtask.getDuration() != null) {
+            subtasksDuration = subtasksDuration.minus(subtask.getDuration());
+        }
+        removeTime(subtaskStartTimes, subtask.getStartTime());
+        removeTime(subtaskEndTimes, subtask.getEndTime());
+    }
+
+    private void applyRollup() {
+        int count = subtaskIds.size();
+        if (count == 0 || newSubtasksCount == count) {
+            setStatus(TaskStatus.NEW);
+        } else if (doneSubtasksCount == count) {
+            setStatus(TaskStatus.DONE);
+        } else {
+            setStatus(TaskStatus.IN_PROGRESS);
+        }
+        setStartTime(subtaskStartTimes.isEmpty() ? null : subtaskStartTimes.firstKey());
+        setEndTime(subtaskEndTimes.isEmpty() ? null : subtaskEndTimes.lastKey());
+        setDuration(subtasksDuration);
+    }
+
+    private static void addTime(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private static void removeTime(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.computeIfPresent(time, (key, count) -> count > 1 ? count - 1 : null);
+        }
     }
 
     @Override
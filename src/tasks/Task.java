@@ -11,6 +11,8 @@ public class Task {
     private TaskStatus status;
     private Duration duration;
     private LocalDateTime startTime;
+    // номер изменения доски, на котором задача получила текущее состояние; выставляет менеджер
+    private transient long version;
 
     public Task(String name, String description, TaskStatus status, Duration duration, LocalDateTime startTime) {
         this.name = name;
@@ -44,6 +46,7 @@ public class Task {
         this.status = other.status;
         this.duration = other.duration;
         this.startTime = other.startTime;
+        this.version = other.version;
     }
 
     public int getId() {
@@ -106,6 +109,14 @@ public class Task {
         this.startTime = startTime;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
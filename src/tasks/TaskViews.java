@@ -0,0 +1,30 @@
+package tasks;
+
+/**
+ * Задача и оценка числа её просмотров для GET /history/top.
+ */
+public class TaskViews {
+    private final Task task;
+    private final double views;
+
+    public TaskViews(Task task, double views) {
+        this.task = task;
+        this.views = views;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public double getViews() {
+        return views;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskViews{" +
+                "task=" + task +
+                ", views=" + views +
+                '}';
+    }
+}
@@ -0,0 +1,104 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int без упаковки с порядком вставки. Построено поверх {@link IntObjectHashMap},
+ * как HashSet поверх HashMap: добавление, удаление и проверка за O(1).
+ */
+public class IntHashSet {
+
+    private static final Object PRESENT = Boolean.TRUE;
+
+    private final IntObjectHashMap<Object> map;
+
+    public IntHashSet() {
+        map = new IntObjectHashMap<>();
+    }
+
+    public IntHashSet(int expectedSize) {
+        map = new IntObjectHashMap<>(expectedSize);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public boolean contains(int value) {
+        return map.containsKey(value);
+    }
+
+    public boolean add(int value) {
+        return map.put(value, PRESENT) == null;
+    }
+
+    public void addAll(IntHashSet other) {
+        other.forEach(this::add);
+    }
+
+    public boolean remove(int value) {
+        return map.remove(value) != null;
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public void forEach(IntConsumer action) {
+        map.forEachKey(action);
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return map.keyIterator();
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        PrimitiveIterator.OfInt iterator = iterator();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = iterator.nextInt();
+        }
+        return result;
+    }
+
+    /**
+     * Неизменяемое представление в виде списка для кода, которому нужен List: get(i) читает плотный
+     * массив ключей за O(1). Упаковка происходит только при обращении к элементам.
+     */
+    public List<Integer> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return map.keyAt(index);
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                return IntHashSet.this.iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Integer && IntHashSet.this.contains((Integer) o);
+            }
+
+            @Override
+            public int size() {
+                return IntHashSet.this.size();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+}
@@ -0,0 +1,351 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Карта с ключами int без упаковки в Integer.
+ * <p>
+ * Записи лежат в плотных массивах в порядке вставки, а хеш-таблица с открытой адресацией хранит только номера
+ * записей. Удаление оставляет «дыру» в плотных массивах и сдвигает цепочку в таблице назад, дыры убираются
+ * при следующем расширении. Итерация идёт в порядке вставки, как у LinkedHashMap. Значения null не допускаются.
+ * <p>
+ * Пока ключи вставляются по возрастанию, порядок вставки совпадает с порядком ключей, и обход с заданного ключа
+ * ({@link #valuesAfter(int)}) начинается двоичным поиском по плотному массиву. Иначе для него строится отдельный
+ * массив номеров записей по возрастанию ключа, а плотные массивы и порядок вставки не меняются.
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int[] slots;
+    private int end;
+    private int size;
+    // ключи в плотных массивах, включая дыры, идут по возрастанию
+    private boolean sortedByKey = true;
+    // номера записей по возрастанию ключа для valuesAfter, когда sortedByKey ложно; null — надо построить заново.
+    // Удаление его не портит: удалённые записи при обходе пропускаются
+    private int[] keyOrder;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+        slots = new int[capacity * 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot >= 0 ? (V) values[slots[slot] - 1] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            int index = slots[slot] - 1;
+            V oldValue = (V) values[index];
+            values[index] = value;
+            return oldValue;
+        }
+        if (end == keys.length) {
+            rebuild(size > keys.length / 2 ? keys.length * 2 : keys.length);
+        }
+        if (end > 0 && key < keys[end - 1]) {
+            sortedByKey = false;
+        }
+        keys[end] = key;
+        values[end] = value;
+        keyOrder = null;
+        end++;
+        size++;
+        insertSlot(key, end);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int index = slots[slot] - 1;
+        V oldValue = (V) values[index];
+        values[index] = null;
+        size--;
+        deleteSlot(slot);
+        while (end > 0 && values[end - 1] == null) {
+            end--;
+        }
+        return oldValue;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, end, null);
+        Arrays.fill(slots, 0);
+        end = 0;
+        size = 0;
+        sortedByKey = true;
+        keyOrder = null;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Ключ с номером index в порядке обхода. Если после удалений в плотных массивах остались дыры, они один раз
+     * убираются с сохранением порядка, дальше обращение по номеру стоит O(1).
+     */
+    public int keyAt(int index) {
+        Objects.checkIndex(index, size);
+        if (end != size) {
+            rebuild(keys.length);
+        }
+        return keys[index];
+    }
+
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int key = keys[index];
+                index = skipRemoved(index + 1);
+                return key;
+            }
+        };
+    }
+
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return valuesFrom(0);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Значения с ключом больше key по возрастанию ключа. Стоимость — O(log n) на поиск начала и O(1) на элемент.
+     * Если ключи вставлялись не по возрастанию, первый вызов после вставки нового ключа строит массив номеров
+     * записей по ключу за O(n log n); порядок обхода {@link #values()} от этого не меняется.
+     */
+    public Iterator<V> valuesAfter(int key) {
+        if (!sortedByKey) {
+            return valuesAfterInKeyOrder(key);
+        }
+        if (end - size > size) {
+            rebuild(keys.length);
+        }
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return valuesFrom(low);
+    }
+
+    private Iterator<V> valuesAfterInKeyOrder(int key) {
+        if (keyOrder == null || keyOrder.length - size > size) {
+            buildKeyOrder();
+        }
+        int[] order = keyOrder;
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[order[middle]] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int start = low;
+        return new Iterator<>() {
+            private int position = skipRemoved(order, start);
+
+            @Override
+            public boolean hasNext() {
+                return position < order.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[order[position]];
+                position = skipRemoved(order, position + 1);
+                return value;
+            }
+        };
+    }
+
+    private int skipRemoved(int[] order, int position) {
+        while (position < order.length && values[order[position]] == null) {
+            position++;
+        }
+        return position;
+    }
+
+    private Iterator<V> valuesFrom(int start) {
+        return new Iterator<>() {
+            private int index = skipRemoved(start);
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[index];
+                index = skipRemoved(index + 1);
+                return value;
+            }
+        };
+    }
+
+    private int skipRemoved(int index) {
+        while (index < end && values[index] == null) {
+            index++;
+        }
+        return index;
+    }
+
+    private int findSlot(int key) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) {
+            if (keys[slots[slot] - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertSlot(int key, int entry) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int ideal = hash(keys[slots[next] - 1]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+    }
+
+    private void rebuild(int capacity) {
+        int[] newKeys = new int[capacity];
+        Object[] newValues = new Object[capacity];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                newKeys[count] = keys[i];
+                newValues[count] = values[i];
+                count++;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        slots = new int[capacity * 2];
+        end = count;
+        keyOrder = null;
+        for (int i = 0; i < count; i++) {
+            insertSlot(keys[i], i + 1);
+        }
+    }
+
+    private void buildKeyOrder() {
+        // ключ в старших 32 битах, номер записи в младших: сортировка long[] без упаковки
+        long[] order = new long[size];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                order[count++] = ((long) keys[i] << 32) | i;
+            }
+        }
+        Arrays.sort(order);
+        keyOrder = new int[count];
+        for (int i = 0; i < count; i++) {
+            keyOrder[i] = (int) order[i];
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
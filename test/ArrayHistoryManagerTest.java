@@ -0,0 +1,83 @@
+import manager.ArrayHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import org.junit.jupiter.api.Test;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayHistoryManagerTest {
+
+    @Test
+    void shouldKeepViewOrderAndReuseFreedSlots() {
+        HistoryManager history = new ArrayHistoryManager();
+        Task t1 = new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        Task t2 = new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        Task t3 = new Task(3, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+
+        history.add(t1);
+        history.add(t2);
+        history.add(t3);
+        history.add(t1);
+        assertEquals(List.of(t2, t3, t1), history.getHistory());
+
+        history.remove(t3.getId());
+        history.remove(t3.getId());
+        history.add(new Task(4, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+        assertEquals(List.of(2, 1, 4), history.getHistory().stream().map(Task::getId).toList());
+
+        history.remove(2);
+        history.remove(4);
+        history.remove(1);
+        assertTrue(history.getHistory().isEmpty());
+    }
+
+    @Test
+    void reviewOfUnchangedTaskShouldKeepStoredCopy() {
+        HistoryManager history = new ArrayHistoryManager();
+        Task task = new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        history.add(task);
+        Task stored = history.getHistory().get(0);
+
+        history.add(task);
+        assertSame(stored, history.getHistory().get(0), "Неизменённая задача не должна копироваться заново");
+
+        task.setStatus(TaskStatus.DONE);
+        history.add(task);
+        assertEquals(TaskStatus.DONE, history.getHistory().get(0).getStatus());
+        assertEquals(TaskStatus.NEW, stored.getStatus(), "Ранее выданная копия не должна меняться");
+    }
+
+    @Test
+    void shouldBehaveLikeLinkedHistoryUnderRandomViews() {
+        HistoryManager expected = new InMemoryHistoryManager(50);
+        HistoryManager actual = new ArrayHistoryManager(50);
+        Random random = new Random(11);
+
+        for (int i = 0; i < 50_000; i++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                actual.remove(id);
+            } else {
+                expected.add(new Task(id, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+                actual.add(new Task(id, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+            }
+        }
+
+        assertEquals(expected.getHistory(), actual.getHistory());
+    }
+
+    @Test
+    void capacityShouldBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ArrayHistoryManager(0));
+    }
+}
@@ -0,0 +1,138 @@
+import manager.AsyncHistoryManager;
+import manager.ConcurrentTaskManager;
+import manager.InMemoryHistoryManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncHistoryManagerTest {
+
+    private AsyncHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = AsyncHistoryManager.start(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        historyManager.close();
+    }
+
+    @Test
+    void appliedViewsShouldKeepOrderWithoutDuplicates() {
+        Task t1 = new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        Task t2 = new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        historyManager.add(t1);
+        historyManager.add(t2);
+        historyManager.add(t1);
+        historyManager.awaitApplied();
+
+        assertEquals(List.of(t2, t1), historyManager.getHistory());
+
+        historyManager.remove(t1.getId());
+        historyManager.awaitApplied();
+        assertEquals(List.of(t2), historyManager.getHistory());
+    }
+
+    @Test
+    void viewsFromManyThreadsShouldAllReachHistory() throws Exception {
+        int threads = 8;
+        int viewsPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * viewsPerThread;
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= viewsPerThread; i++) {
+                    historyManager.add(new Task(offset + i, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        historyManager.awaitApplied();
+
+        Set<Integer> ids = new HashSet<>();
+        historyManager.getHistory().forEach(task -> ids.add(task.getId()));
+        assertEquals(threads * viewsPerThread - historyManager.getDroppedViews(), ids.size());
+    }
+
+    @Test
+    void fullBufferShouldDropViewsButKeepRemovals() {
+        AsyncHistoryManager small = AsyncHistoryManager.start(new InMemoryHistoryManager(), 2);
+        try {
+            for (int i = 1; i <= 10_000; i++) {
+                small.add(new Task(i, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+            }
+            small.remove(10_000);
+            small.awaitApplied();
+
+            assertTrue(small.getHistory().stream().noneMatch(task -> task.getId() == 10_000));
+        } finally {
+            small.close();
+        }
+    }
+
+    @Test
+    void managerShouldRecordViewsThroughAsyncHistory() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(historyManager);
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        manager.createTask(task);
+
+        manager.getTaskById(task.getId());
+        historyManager.awaitApplied();
+        assertEquals(List.of(task), manager.getHistory());
+
+        manager.deleteTask(task.getId());
+        historyManager.awaitApplied();
+        assertTrue(manager.getHistory().isEmpty());
+    }
+
+    @Test
+    void closedHistoryShouldRejectEvents() {
+        historyManager.add(new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+        historyManager.close();
+
+        assertEquals(1, historyManager.getHistory().size(), "При закрытии очередь должна быть применена");
+        Task late = new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        assertThrows(IllegalStateException.class, () -> historyManager.add(late));
+        assertThrows(IllegalArgumentException.class, () -> AsyncHistoryManager.start(new InMemoryHistoryManager(), 3));
+    }
+
+    @Test
+    void idleConsumerShouldWaitWithoutPolling() throws Exception {
+        historyManager.add(new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+        historyManager.awaitApplied();
+        Thread consumer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("task-manager-history"))
+                .findFirst().orElseThrow();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (consumer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        // без таймаута: прежний цикл с parkNanos давал бы TIMED_WAITING
+        assertEquals(Thread.State.WAITING, consumer.getState());
+
+        historyManager.add(new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+        historyManager.awaitApplied();
+        assertEquals(2, historyManager.getHistory().size());
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchEndpointTest extends BaseHttpTest {
+
+    private static final String BATCH_URL = "http://localhost:8080/batch";
+
+    @Test
+    public void testBatch_appliesAllOperations() throws Exception {
+        Epic epic = new Epic("Epic", "Desc");
+        taskManager.createEpic(epic);
+        Task task = new Task("Old task", "Desc", TaskStatus.NEW);
+        taskManager.createTask(task);
+        String json = "["
+                + "{\"action\":\"create\",\"type\":\"TASK\",\"task\":" + gson.toJson(new Task("Task", "Desc",
+                TaskStatus.NEW, Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 9, 0))) + "},"
+                + "{\"action\":\"create\",\"type\":\"SUBTASK\",\"task\":{\"name\":\"Sub\",\"description\":\"Desc\","
+                + "\"status\":\"DONE\",\"epicId\":" + epic.getId() + "}},"
+                + "{\"action\":\"delete\",\"type\":\"TASK\",\"id\":" + task.getId() + "}"
+                + "]";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BATCH_URL))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        int[] ids = gson.fromJson(response.body(), int[].class);
+        assertEquals(3, ids.length);
+        assertEquals("Task", taskManager.getTaskById(ids[0]).orElseThrow().getName());
+        assertEquals(epic.getId(), taskManager.getSubtaskById(ids[1]).orElseThrow().getEpicId());
+        assertEquals(1, taskManager.getTasks().size());
+        assertEquals(TaskStatus.DONE, taskManager.getEpicById(epic.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testBatch_returns406AndAppliesNothingOnOverlap() throws Exception {
+        Task task = new Task("Task", "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2024, 1, 1, 9, 0));
+        String json = "[{\"action\":\"create\",\"type\":\"TASK\",\"task\":" + gson.toJson(task) + "},"
+                + "{\"action\":\"create\",\"type\":\"TASK\",\"task\":" + gson.toJson(task) + "}]";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BATCH_URL))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(406, response.statusCode());
+        assertTrue(taskManager.getTasks().isEmpty());
+    }
+
+    @Test
+    public void testBatch_returns400OnMalformedOperation() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BATCH_URL))
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"action\":\"create\"}]"))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+}
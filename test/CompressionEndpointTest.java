@@ -0,0 +1,174 @@
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import server.ServerConfig;
+import server.handlers.BaseHttpHandler;
+import server.handlers.ResponseCompression;
+import server.handlers.Router;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionEndpointTest extends BaseHttpTest {
+
+    private static final String TASK_URL = "http://localhost:8080/tasks";
+
+    @Test
+    public void testGetTasks_gzipsLargeListWhenAccepted() throws Exception {
+        createTasks(500);
+
+        HttpResponse<byte[]> response = get(TASK_URL, "gzip, deflate");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals("Accept-Encoding", response.headers().firstValue("Vary").orElseThrow());
+        String json = read(new GZIPInputStream(new ByteArrayInputStream(response.body())));
+        assertEquals(500, gson.fromJson(json, Task[].class).length);
+        assertTrue(response.body().length * 5 < json.length(), "Повторяющийся JSON сжимается в разы");
+    }
+
+    @Test
+    public void testGetTasks_usesDeflateWhenGzipRejected() throws Exception {
+        createTasks(100);
+
+        HttpResponse<byte[]> response = get(TASK_URL, "gzip;q=0, deflate;q=0.5");
+
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElseThrow());
+        String json = read(new InflaterInputStream(new ByteArrayInputStream(response.body())));
+        assertEquals(100, gson.fromJson(json, Task[].class).length);
+    }
+
+    @Test
+    public void testGetTask_smallResponseIsNotCompressed() throws Exception {
+        createTasks(1);
+
+        HttpResponse<byte[]> response = get(TASK_URL + "/1", "gzip");
+
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(String.valueOf(response.body().length),
+                response.headers().firstValue("Content-Length").orElseThrow());
+        assertEquals("Task 0", gson.fromJson(new String(response.body(), StandardCharsets.UTF_8), Task.class)
+                .getName());
+    }
+
+    @Test
+    public void testCompressionCanBeDisabled() throws Exception {
+        taskServer.stop();
+        taskServer = new HttpTaskServer(taskManager, ServerConfig.fixed().withCompression(0, 0));
+        taskServer.start();
+        createTasks(500);
+
+        HttpResponse<byte[]> response = get(TASK_URL, "gzip");
+
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(500, gson.fromJson(new String(response.body(), StandardCharsets.UTF_8), Task[].class).length);
+    }
+
+    @Test
+    public void testFailedSerialization_smallCompressedListAnswers500() throws Exception {
+        HttpServer server = failingServer(List.of("начало", new Broken()));
+        try {
+            HttpResponse<byte[]> response = get(url(server), "gzip");
+
+            assertEquals(500, response.statusCode());
+            assertEquals("Internal Server Error", new String(response.body(), StandardCharsets.UTF_8));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testFailedSerialization_largeCompressedListIsNotCompleted() throws Exception {
+        List<Object> items = new ArrayList<>(Collections.nCopies(5_000, "Повторяющееся описание задачи"));
+        items.add(new Broken());
+        HttpServer server = failingServer(items);
+        try {
+            // заголовки 200 уже ушли, но без окончания gzip оборванное тело не читается как целое
+            assertThrows(IOException.class, () -> {
+                HttpResponse<byte[]> response = get(url(server), "gzip");
+                read(new GZIPInputStream(new ByteArrayInputStream(response.body())));
+            });
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // сервер, который отдаёт items списком; сериализация падает на элементе Broken
+    private static HttpServer failingServer(List<Object> items) throws IOException {
+        ListHandler handler = new ListHandler();
+        Router router = new Router().add("GET", "/items", (exchange, params) -> handler.send(exchange, items));
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", router);
+        server.start();
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort() + "/items";
+    }
+
+    private void createTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            taskManager.createTask(new Task("Task " + i, "Повторяющееся описание задачи", TaskStatus.NEW));
+        }
+    }
+
+    private HttpResponse<byte[]> get(String url, String acceptEncoding) throws Exception {
+        return client.send(HttpRequest.newBuilder().uri(URI.create(url)).header("Accept-Encoding", acceptEncoding)
+                .GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String read(InputStream input) throws Exception {
+        try (input) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Broken {
+    }
+
+    private static final class BrokenAdapter extends TypeAdapter<Broken> {
+        @Override
+        public void write(JsonWriter out, Broken value) {
+            throw new IllegalStateException("Сериализация сломана");
+        }
+
+        @Override
+        public Broken read(JsonReader in) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class ListHandler extends BaseHttpHandler {
+        ListHandler() {
+            super(new GsonBuilder().registerTypeAdapter(Broken.class, new BrokenAdapter()).create(),
+                    new ResponseCompression(6, 1024));
+        }
+
+        void send(HttpExchange exchange, List<Object> items) throws IOException {
+            sendJson(exchange, items, 200);
+        }
+    }
+}
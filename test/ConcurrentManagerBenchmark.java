@@ -0,0 +1,126 @@
+import exceptions.NotFoundException;
+import manager.ConcurrentTaskManager;
+import manager.InMemoryTaskManager;
+import manager.Managers;
+import manager.TaskManager;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пропускная способность ConcurrentTaskManager против InMemoryTaskManager, у которого каждый вызов закрыт
+ * одним общим монитором. Смесь операций как у сервера: 80% GET по id от разных клиентов, 15% обновлений,
+ * 5% созданий с удалением. Обёртка сделана через Proxy и добавляет к каждому вызову десятки наносекунд
+ * рефлексии, на фоне операции под блокировкой это мало.
+ * Запуск: ConcurrentManagerBenchmark [задач] [секунд на замер] [потоков...].
+ */
+public class ConcurrentManagerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int[] threadCounts = {1, 2, 4, 8};
+        if (args.length > 2) {
+            threadCounts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                threadCounts[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        run(synchronizedManager(count), count, 2, seconds); // прогрев
+        run(concurrentManager(count), count, 2, seconds);
+        for (int threads : threadCounts) {
+            double locked = run(synchronizedManager(count), count, threads, seconds);
+            double concurrent = run(concurrentManager(count), count, threads, seconds);
+            System.out.printf("%d потоков: synchronized %,.0f оп/с, ConcurrentTaskManager %,.0f оп/с (x%.1f)%n",
+                    threads, locked, concurrent, concurrent / locked);
+        }
+    }
+
+    private static double run(TaskManager manager, int count, int threads, int seconds) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder operations = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String clientId = "client-" + t;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while (!stop.get()) {
+                    int id = random.nextInt(count) + 1;
+                    int kind = random.nextInt(100);
+                    try {
+                        if (kind < 80) {
+                            manager.getTaskById(id, clientId);
+                        } else if (kind < 95) {
+                            manager.updateTask(new Task(id, "Задача " + id, "Обновлена",
+                                    TaskStatus.IN_PROGRESS, null, null));
+                        } else {
+                            Task task = new Task("Временная", "Описание", TaskStatus.NEW);
+                            manager.createTask(task);
+                            manager.deleteTask(task.getId());
+                        }
+                    } catch (NotFoundException e) {
+                        // задачу удалили между выбором id и вызовом, это тоже операция
+                    }
+                    local++;
+                }
+                operations.add(local);
+                done.countDown();
+            });
+            worker.start();
+        }
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        done.await();
+        return operations.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static TaskManager synchronizedManager(int count) {
+        TaskManager delegate = new InMemoryTaskManager(Managers.getDefaultHistory()) {
+            @Override
+            protected void log(String message) {
+                // вывод в консоль сериализовал бы оба менеджера одинаково
+            }
+        };
+        prefill(delegate, count);
+        return (TaskManager) Proxy.newProxyInstance(TaskManager.class.getClassLoader(),
+                new Class<?>[]{TaskManager.class}, (proxy, method, methodArgs) -> {
+                    synchronized (delegate) {
+                        try {
+                            return method.invoke(delegate, methodArgs);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private static TaskManager concurrentManager(int count) {
+        TaskManager manager = new ConcurrentTaskManager() {
+            @Override
+            protected void log(String message) {
+                // вывод в консоль сериализовал бы оба менеджера одинаково
+            }
+        };
+        prefill(manager, count);
+        return manager;
+    }
+
+    private static void prefill(TaskManager manager, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+        }
+        manager.createTasks(tasks);
+    }
+}
@@ -0,0 +1,172 @@
+import exceptions.NotFoundException;
+import exceptions.TasksOverlapException;
+import manager.ConcurrentTaskManager;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 200;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void shouldAssignUniqueIdsUnderConcurrentCreation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    manager.createTask(new Task("Task", "desc", TaskStatus.NEW));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Task> tasks = manager.getTasks();
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        assertEquals(THREADS * TASKS_PER_THREAD, tasks.size(), "Задачи потерялись");
+        assertEquals(THREADS * TASKS_PER_THREAD, ids.size(), "Id задач повторяются");
+    }
+
+    @Test
+    void shouldAcceptOnlyOneOfConcurrentOverlappingTasks() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    manager.createTask(new Task("Task", "desc", TaskStatus.NEW, Duration.ofMinutes(60), start));
+                } catch (TasksOverlapException e) {
+                    // пересечение ожидаемо для всех потоков, кроме одного
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldKeepEpicRollupConsistentUnderConcurrentSubtaskCreation() throws Exception {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    manager.createSubtask(new Subtask("Sub", "desc", TaskStatus.DONE, Duration.ofMinutes(1),
+                            null, epic.getId()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Epic savedEpic = manager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(THREADS * TASKS_PER_THREAD, savedEpic.getSubtaskIds().size());
+        assertEquals(TaskStatus.DONE, savedEpic.getStatus());
+        assertEquals(Duration.ofMinutes(THREADS * TASKS_PER_THREAD), savedEpic.getDuration());
+    }
+
+    @Test
+    void readEpicShouldBeDetachedFromLaterSubtaskChanges() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        Subtask first = new Subtask("Subtask 1", "desc", TaskStatus.DONE, Duration.ofMinutes(30), start,
+                epic.getId());
+        manager.createSubtask(first);
+
+        Epic read = manager.getEpics().get(0);
+        manager.createSubtask(new Subtask("Subtask 2", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                start.plusHours(1), epic.getId()));
+
+        assertEquals(List.of(first.getId()), read.getSubtaskIds());
+        assertEquals(TaskStatus.DONE, read.getStatus());
+        assertEquals(start.plusMinutes(30), read.getEndTime());
+
+        // прочитанная копия без агрегатов не портит эпик, если её вернуть в updateEpic
+        read.setName("Renamed");
+        manager.updateEpic(read);
+        Epic saved = manager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals("Renamed", saved.getName());
+        assertEquals(2, saved.getSubtaskIds().size());
+        assertEquals(TaskStatus.IN_PROGRESS, saved.getStatus());
+        assertEquals(start.plusHours(1).plusMinutes(30), saved.getEndTime());
+    }
+
+    @Test
+    void defaultHistoryShouldBeSeparatedByClient() {
+        Task first = new Task("Task 1", "desc", TaskStatus.NEW);
+        Task second = new Task("Task 2", "desc", TaskStatus.NEW);
+        manager.createTask(first);
+        manager.createTask(second);
+
+        manager.getTaskById(first.getId(), "alice");
+        manager.getTaskById(second.getId(), "bob");
+
+        assertEquals(List.of(first.getId()), manager.getHistory("alice").stream().map(Task::getId).toList());
+        assertEquals(List.of(second.getId()), manager.getHistory("bob").stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void viewsRacingWithDeletesShouldNotLeaveDeletedTasksInHistory() throws Exception {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < THREADS * TASKS_PER_THREAD; i++) {
+            created.add(new Task("Task", "desc", TaskStatus.NEW));
+        }
+        manager.createTasks(created);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> viewer = executor.submit(() -> {
+            for (Task task : created) {
+                for (int i = 0; i < 3; i++) {
+                    try {
+                        manager.getTaskById(task.getId());
+                    } catch (NotFoundException e) {
+                        // задачу уже удалили
+                    }
+                }
+            }
+        });
+        Future<?> deleter = executor.submit(() -> created.forEach(task -> manager.deleteTask(task.getId())));
+        viewer.get();
+        deleter.get();
+        executor.shutdown();
+
+        assertTrue(manager.getHistory().isEmpty(), "В истории остались удалённые задачи");
+    }
+}
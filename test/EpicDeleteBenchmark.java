@@ -0,0 +1,68 @@
+import manager.InMemoryTaskManager;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Замер удаления эпика с большим числом запланированных подзадач на фоне других задач в расписании.
+ * Для сравнения то же расписание чистится прежним способом — removeIf по всему дереву на каждую подзадачу.
+ * Запуск: EpicDeleteBenchmark [подзадач в эпике] [других задач].
+ */
+public class EpicDeleteBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int subtaskCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        InMemoryTaskManager manager = new InMemoryTaskManager() {
+            @Override
+            protected void log(String message) {
+                // вывод в консоль исказил бы замер
+            }
+        };
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task("Задача " + i, "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(i)));
+        }
+        manager.createTasks(tasks);
+        Epic epic = new Epic("Эпик", "Описание");
+        manager.createEpic(epic);
+        List<Subtask> subtasks = new ArrayList<>(subtaskCount);
+        for (int i = 0; i < subtaskCount; i++) {
+            subtasks.add(new Subtask("Подзадача " + i, "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(20), BASE.plusHours(i).plusMinutes(30), epic.getId()));
+        }
+        manager.createSubtasks(subtasks);
+
+        TreeSet<Task> legacy = new TreeSet<>(Comparator.comparing(Task::getStartTime)
+                .thenComparingInt(Task::getId));
+        legacy.addAll(manager.getPrioritizedTasks());
+
+        long start = System.nanoTime();
+        manager.deleteEpic(epic.getId());
+        long deleteNanos = System.nanoTime() - start;
+        if (manager.getPrioritizedTasks().size() != taskCount) {
+            throw new IllegalStateException("Подзадачи остались в расписании");
+        }
+
+        start = System.nanoTime();
+        for (Subtask subtask : subtasks) {
+            legacy.removeIf(task -> task.getId() == subtask.getId());
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        System.out.printf("эпик с %,d подзадачами среди %,d задач: удаление %d мс, прежний removeIf %d мс%n",
+                subtaskCount, taskCount, deleteNanos / 1_000_000, legacyNanos / 1_000_000);
+    }
+}
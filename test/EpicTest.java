@@ -3,8 +3,14 @@ import manager.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
+import tasks.Subtask;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class EpicTest {
 
@@ -27,4 +33,37 @@ class EpicTest {
         assertEquals(epic1, epic2, "Эпики с одинаковым Id должны считаться одинаковыми");
         assertEquals(epic1.hashCode(), epic2.hashCode(), "Хеш-код эпиков с одинаковым Id должен быть одним");
     }
-}
\ No newline at end of file
+
+    @Test
+    void rollupShouldFollowSubtaskChanges() {
+        Epic epic = new Epic("Epic", "desc");
+        Subtask sub1 = new Subtask(2, "Sub 1", "desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 10, 0), 1);
+        Subtask sub2 = new Subtask(3, "Sub 2", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 12, 0), 1);
+        epic.addSubtask(sub1);
+        epic.addSubtask(sub2);
+
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 13, 0), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+
+        Subtask sub2Done = new Subtask(3, "Sub 2", "desc", TaskStatus.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 5, 1, 9, 0), 1);
+        epic.replaceSubtask(sub2, sub2Done);
+
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 9, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 30), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(45), epic.getDuration());
+
+        epic.removeSubtask(sub1);
+        epic.removeSubtask(sub2Done);
+
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+}
@@ -1,5 +1,6 @@
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
+import tasks.Subtask;
 import tasks.TaskStatus;
 
 import java.net.URI;
@@ -102,4 +103,47 @@ public class EpicsEndpointTest extends BaseHttpTest {
         assertEquals("Updated description", result.getDescription());
         assertEquals(TaskStatus.DONE, result.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetEpics_filtersByStatusAndRejectsUnsupportedQuery() throws Exception {
+        Epic open = new Epic("Open", "Desc");
+        Epic done = new Epic("Done", "Desc");
+        taskManager.createEpic(open);
+        taskManager.createEpic(done);
+        taskManager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, done.getId()));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(EPIC_URL + "?status=done")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Epic[] epics = gson.fromJson(response.body(), Epic[].class);
+        assertEquals(1, epics.length);
+        assertEquals("Done", epics[0].getName());
+
+        for (String query : List.of("?epic=1", "?type=epic", "?limit=0")) {
+            HttpResponse<String> rejected = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(EPIC_URL + query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, rejected.statusCode(), query);
+        }
+    }
+
+    @Test
+    public void testGetEpicSubtasks_viaNestedPath() throws Exception {
+        Epic epic = new Epic("Epic", "Desc");
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.NEW, epic.getId()));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(EPIC_URL + "/" + epic.getId() + "/subtasks"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Subtask[] subtasks = gson.fromJson(response.body(), Subtask[].class);
+        assertEquals(1, subtasks.length);
+        assertEquals("Subtask", subtasks[0].getName());
+
+        request = HttpRequest.newBuilder().uri(URI.create(EPIC_URL + "/999/subtasks")).GET().build();
+        assertEquals(404, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
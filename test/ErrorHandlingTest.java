@@ -7,6 +7,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -43,4 +44,31 @@ public class ErrorHandlingTest extends BaseHttpTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(406, response.statusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMalformedPaths_return404() throws Exception {
+        taskManager.createTask(new Task("Task", "Desc", TaskStatus.NEW));
+
+        for (String path : List.of("/tasks/abc", "/tasks/1/", "/tasks/-1", "/tasks/99999999999", "/tasks//1",
+                "/tasks/1/extra", "/unknown")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080" + path))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, response.statusCode(), path);
+        }
+    }
+
+    @Test
+    public void testUnsupportedMethod_returns405() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "/1"))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+}
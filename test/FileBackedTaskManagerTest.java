@@ -1,6 +1,9 @@
 import exceptions.ManagerSaveException;
 import exceptions.NotFoundException;
 import manager.FileBackedTaskManager;
+import manager.PersistenceMetrics;
+import manager.SnapshotFormat;
+import manager.WriteBehindConfig;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
@@ -10,12 +13,16 @@ import tasks.TaskStatus;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -24,6 +31,9 @@ import static org.junit.jupiter.api.Assertions.fail;
 class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
     private File tempFile;
 
+    // менеджеры, созданные в самих тестах: у них свои потоки записи и журналы просмотров
+    private final List<FileBackedTaskManager> opened = new ArrayList<>();
+
     @Override
     protected FileBackedTaskManager createManager() {
         try {
@@ -36,7 +46,24 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
     @AfterEach
     void tearDown() {
+        for (FileBackedTaskManager other : opened) {
+            other.close();
+        }
+        manager.close();
         tempFile.delete();
+        new File(tempFile.getPath() + ".journal").delete();
+        new File(tempFile.getPath() + ".history").delete();
+    }
+
+    private FileBackedTaskManager opened(FileBackedTaskManager other) {
+        opened.add(other);
+        return other;
+    }
+
+    private static List<Thread> writerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("task-manager-writer") && thread.isAlive())
+                .toList();
     }
 
     @Test
@@ -46,7 +73,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(1, lines.size());
         assertEquals("id,type,name,status,description,duration,startTime,epic", lines.getFirst());
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
 
         assertTrue(loadedManager.getTasks().isEmpty());
         assertTrue(loadedManager.getEpics().isEmpty());
@@ -74,7 +101,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         manager.createTask(task1);
         manager.createTask(task2);
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
 
         assertEquals(2, loadedManager.getTasks().size());
         assertEquals(task1.getName(), loadedManager.getTaskById(task1.getId()).orElseThrow().getName());
@@ -91,7 +118,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         manager.createSubtask(subtask1);
         manager.createSubtask(subtask2);
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
         Epic loadedEpic = loadedManager.getEpicById(epic.getId()).orElseThrow();
 
         List<Integer> subtaskIds = loadedEpic.getSubtaskIds();
@@ -106,7 +133,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         Task task1 = new Task("Task1", "Desc", TaskStatus.NEW);
         manager.createTask(task1);
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
         Task task2 = new Task("Task2", "Desc", TaskStatus.NEW);
         loadedManager.createTask(task2);
 
@@ -119,7 +146,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         manager.createTask(task);
         manager.deleteTask(task.getId());
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
         assertTrue(loadedManager.getTasks().isEmpty());
         assertThrows(NotFoundException.class, () -> loadedManager.getTaskById(task.getId()));
     }
@@ -133,7 +160,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
                 LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId());
         manager.createSubtask(sub);
 
-        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile));
         Epic loadedEpic = loaded.getEpicById(epic.getId()).orElseThrow();
 
         assertEquals(LocalDateTime.of(2025, 5, 1, 10, 0), loadedEpic.getStartTime());
@@ -146,13 +173,413 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         Epic epic = new Epic("Empty Epic", "No subtasks");
         manager.createEpic(epic);
 
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
         Epic loadedEpic = loadedManager.getEpicById(epic.getId()).orElseThrow();
 
         assertEquals(epic.getName(), loadedEpic.getName());
         assertTrue(loadedEpic.getSubtaskIds().isEmpty());
     }
 
+    @Test
+    void shouldSaveBatchToFile() throws IOException {
+        Epic epic = new Epic("Epic1", "test epic #1");
+        manager.createEpic(epic);
+        manager.createSubtasks(List.of(
+                new Subtask("Sub1", "desc", TaskStatus.NEW, epic.getId()),
+                new Subtask("Sub2", "desc", TaskStatus.DONE, epic.getId())));
+
+        assertEquals(4, Files.readAllLines(tempFile.toPath()).size());
+
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        assertEquals(2, loadedManager.getEpicSubtasks(epic.getId()).size());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedManager.getEpicById(epic.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void journalModeShouldAppendChangesWithoutRewritingSnapshot() throws IOException {
+        FileBackedTaskManager journaled = opened(new FileBackedTaskManager(tempFile, 100));
+        Task task1 = new Task("Task1", "Desc", TaskStatus.NEW);
+        journaled.createTask(task1);
+        Task task2 = new Task("Task2", "Desc", TaskStatus.NEW);
+        journaled.createTask(task2);
+        // журнал пишется в UTF-8 и читаться должен так же, независимо от кодировки платформы
+        journaled.updateTask(new Task(task2.getId(), "Задача 2 — обновлена", "Desc", TaskStatus.DONE, null, null));
+        journaled.deleteTask(task1.getId());
+
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        assertEquals(2, Files.readAllLines(tempFile.toPath()).size()); // заголовок + первая задача
+        assertEquals(3, Files.readAllLines(journalFile.toPath()).size());
+
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile, 100));
+        assertEquals(1, loadedManager.getTasks().size());
+        assertEquals("Задача 2 — обновлена", loadedManager.getTaskById(task2.getId()).orElseThrow().getName());
+        assertThrows(NotFoundException.class, () -> loadedManager.getTaskById(task1.getId()));
+    }
+
+    @Test
+    void journalShouldBeFoldedIntoSnapshotOnCompaction() throws IOException {
+        FileBackedTaskManager journaled = opened(new FileBackedTaskManager(tempFile, 3));
+        Epic epic = new Epic("Epic1", "Desc");
+        journaled.createEpic(epic);
+        for (int i = 0; i < 4; i++) {
+            journaled.createSubtask(new Subtask("Sub" + i, "Desc", TaskStatus.DONE, epic.getId()));
+        }
+
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        assertEquals(6, Files.readAllLines(tempFile.toPath()).size());
+        assertTrue(Files.readAllLines(journalFile.toPath()).isEmpty());
+
+        journaled.deleteEpic(epic.getId());
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        assertTrue(loadedManager.getEpics().isEmpty());
+        assertTrue(loadedManager.getSubtasks().isEmpty());
+        assertFalse(journalFile.exists());
+
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        loadedManager.createTask(task);
+        assertTrue(task.getId() > epic.getId() + 4, "id удалённых задач не должны переиспользоваться");
+    }
+
+    @Test
+    void durableWriteBehindShouldPersistChangeBeforeReturning() throws InterruptedException {
+        FileBackedTaskManager writeBehind = opened(new FileBackedTaskManager(tempFile, 1000,
+                WriteBehindConfig.durable()));
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    writeBehind.createTask(new Task("Task" + thread + "-" + i, "Desc", TaskStatus.NEW));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, opened(FileBackedTaskManager.loadFromFile(tempFile)).getTasks().size());
+        PersistenceMetrics metrics = writeBehind.getPersistenceMetrics();
+        assertEquals(100, metrics.getChangeCount());
+        // потоки ждут диска вне монитора, поэтому чужие изменения успевают в тот же сброс
+        assertTrue(metrics.getFlushCount() < metrics.getChangeCount(), metrics.toString());
+        writeBehind.close();
+    }
+
+    @Test
+    void writeBehindShouldBuildSnapshotOncePerFlush() throws InterruptedException {
+        // без журнала каждое изменение требует нового снимка
+        FileBackedTaskManager writeBehind = opened(new FileBackedTaskManager(tempFile, 0, WriteBehindConfig.durable()));
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    writeBehind.createTask(new Task("Task" + thread + "-" + i, "Desc", TaskStatus.NEW));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writeBehind.close();
+
+        PersistenceMetrics metrics = writeBehind.getPersistenceMetrics();
+        assertEquals(100, metrics.getChangeCount());
+        assertEquals(metrics.getFlushCount(), metrics.getSnapshotCount());
+        assertEquals(100, opened(FileBackedTaskManager.loadFromFile(tempFile)).getTasks().size());
+    }
+
+    @Test
+    void writeBehindThreadShouldStartOnFirstChange() {
+        List<Thread> before = writerThreads();
+        FileBackedTaskManager writeBehind = opened(new FileBackedTaskManager(tempFile, 0, WriteBehindConfig.durable()));
+        assertEquals(before, writerThreads(), "Конструктор не запускает поток записи");
+
+        writeBehind.createTask(new Task("Task", "Desc", TaskStatus.NEW));
+        assertEquals(before.size() + 1, writerThreads().size());
+        writeBehind.close();
+        assertThrows(IllegalStateException.class,
+                () -> writeBehind.createTask(new Task("Late", "Desc", TaskStatus.NEW)));
+    }
+
+    @Test
+    void relaxedWriteBehindShouldFlushQueueOnClose() {
+        FileBackedTaskManager writeBehind = opened(new FileBackedTaskManager(tempFile, 1000,
+                new WriteBehindConfig(WriteBehindConfig.Durability.RELAXED, Duration.ofHours(1), 1000, false)));
+        for (int i = 0; i < 50; i++) {
+            writeBehind.createTask(new Task("Task" + i, "Desc", TaskStatus.NEW));
+        }
+        writeBehind.close();
+
+        assertEquals(50, opened(FileBackedTaskManager.loadFromFile(tempFile)).getTasks().size());
+        assertEquals(1, writeBehind.getPersistenceMetrics().getFlushCount());
+        assertEquals(50, writeBehind.getPersistenceMetrics().getLastBatchSize());
+    }
+
+    @Test
+    void shouldLoadLargeFileSplitIntoChunks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("id,type,name,status,description,duration,startTime,epic");
+        for (int i = 1; i <= 40_000; i++) {
+            lines.add(i + ",TASK,Task" + i + ",NEW,Описание задачи номер " + i + ",30,"
+                    + LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i) + ",");
+        }
+        lines.add("40001,EPIC,Epic,NEW,Desc,,,");
+        lines.add("40002,SUBTASK,Sub,DONE,Desc,,,40001,");
+        Files.write(tempFile.toPath(), String.join("\r\n", lines).getBytes(StandardCharsets.UTF_8));
+
+        FileBackedTaskManager loadedManager = opened(FileBackedTaskManager.loadFromFile(tempFile));
+
+        List<Task> tasks = loadedManager.getTasks();
+        assertEquals(40_000, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(i + 1, tasks.get(i).getId());
+        }
+        assertEquals("Описание задачи номер 40000", tasks.getLast().getDescription());
+        assertEquals(40_000, loadedManager.getPrioritizedTasks().size());
+        assertEquals(TaskStatus.DONE, loadedManager.getEpicById(40001).orElseThrow().getStatus());
+        assertEquals(40_002, loadedManager.getPersistenceMetrics().getLoadedRows());
+    }
+
+    @Test
+    void binarySnapshotShouldRoundTripTasks() throws IOException, NotFoundException {
+        FileBackedTaskManager binary = opened(new FileBackedTaskManager(tempFile, 0, null, SnapshotFormat.BINARY));
+        Task task = new Task("Купить хлеб, молоко", "Описание, с запятыми", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 5, 1, 10, 15, 42, 123_000_000));
+        binary.createTask(task);
+        Epic epic = new Epic("Epic", null);
+        binary.createEpic(epic);
+        Subtask subtask = new Subtask("Sub", "Desc", TaskStatus.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(1969, 12, 31, 23, 59), epic.getId());
+        binary.createSubtask(subtask);
+
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile));
+
+        Task loadedTask = loaded.getTaskById(task.getId()).orElseThrow();
+        assertEquals(task.getName(), loadedTask.getName());
+        assertEquals(task.getDescription(), loadedTask.getDescription());
+        assertEquals(task.getStatus(), loadedTask.getStatus());
+        assertEquals(task.getDuration(), loadedTask.getDuration());
+        assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        assertEquals(subtask.getStartTime(), loaded.getSubtaskById(subtask.getId()).orElseThrow().getStartTime());
+        Epic loadedEpic = loaded.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(null, loadedEpic.getDescription());
+        assertEquals(TaskStatus.DONE, loadedEpic.getStatus());
+
+        loaded.createTask(new Task("Next", "Desc", TaskStatus.NEW));
+        assertEquals(2, opened(FileBackedTaskManager.loadFromFile(tempFile)).getTasks().size());
+        assertFalse(Files.readString(tempFile.toPath(), StandardCharsets.ISO_8859_1).startsWith("id,"),
+                "формат сохраняется после загрузки");
+    }
+
+    @Test
+    void binaryJournalShouldRoundTripNamesWithCommasAndLineBreaks() throws IOException {
+        FileBackedTaskManager binary = opened(new FileBackedTaskManager(tempFile, 100, null, SnapshotFormat.BINARY));
+        Task task = new Task("Купить хлеб, молоко", "Первая строка\nвторая, третья", TaskStatus.NEW);
+        binary.createTask(task);
+        Epic epic = new Epic("Эпик,\r\nс переводом", "Desc");
+        binary.createEpic(epic);
+        Subtask subtask = new Subtask("Sub, 1", "a\nb", TaskStatus.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId());
+        binary.createSubtask(subtask);
+        binary.updateTask(new Task(task.getId(), "Хлеб,\nмолоко, сыр", "Desc", TaskStatus.DONE, null, null));
+        Task removed = new Task("Удалить, потом", "Desc", TaskStatus.NEW);
+        binary.createTask(removed);
+        binary.deleteTask(removed.getId());
+        binary.close();
+        assertTrue(Files.size(new File(tempFile.getPath() + ".journal").toPath()) > 0, "Изменения ушли в журнал");
+
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile, 100));
+        assertEquals("Хлеб,\nмолоко, сыр", loaded.getTaskById(task.getId()).orElseThrow().getName());
+        assertEquals("Эпик,\r\nс переводом", loaded.getEpicById(epic.getId()).orElseThrow().getName());
+        Subtask loadedSubtask = loaded.getSubtaskById(subtask.getId()).orElseThrow();
+        assertEquals("a\nb", loadedSubtask.getDescription());
+        assertEquals(subtask.getStartTime(), loadedSubtask.getStartTime());
+        assertEquals(TaskStatus.DONE, loaded.getEpicById(epic.getId()).orElseThrow().getStatus());
+        assertEquals(1, loaded.getTasks().size());
+        loaded.close();
+    }
+
+    @Test
+    void binaryJournalShouldIgnoreTornLastRecord() throws IOException {
+        FileBackedTaskManager binary = opened(new FileBackedTaskManager(tempFile, 100, null, SnapshotFormat.BINARY));
+        binary.createTask(new Task("Первая", "Desc", TaskStatus.NEW));
+        binary.createTask(new Task("Вторая", "Desc", TaskStatus.NEW));
+        binary.createTask(new Task("Третья, оборванная", "Desc", TaskStatus.NEW));
+        binary.close();
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        Files.write(journalFile.toPath(), Arrays.copyOf(journal, journal.length - 3));
+
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile, 100));
+        assertEquals(List.of("Первая", "Вторая"), loaded.getTasks().stream().map(Task::getName).toList());
+        loaded.close();
+    }
+
+    @Test
+    void binaryJournalShouldRejectRecordWithShortBody() throws IOException {
+        FileBackedTaskManager binary = opened(new FileBackedTaskManager(tempFile, 100, null, SnapshotFormat.BINARY));
+        binary.createTask(new Task("Первая", "Desc", TaskStatus.NEW));
+        binary.createTask(new Task("Вторая", "Desc", TaskStatus.NEW));
+        binary.close();
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        // длина записи цела, но в теле только код PUT и тип, без самой задачи
+        byte[] corrupted = Arrays.copyOf(journal, journal.length + 3);
+        corrupted[journal.length] = 2;
+        corrupted[journal.length + 1] = 1;
+        Files.write(journalFile.toPath(), corrupted);
+
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(tempFile, 100));
+        assertEquals("Повреждённая запись журнала: смещение " + journal.length, exception.getMessage());
+    }
+
+    @Test
+    void binarySnapshotShouldRejectCorruptedFile() throws IOException {
+        FileBackedTaskManager binary = opened(new FileBackedTaskManager(tempFile, 0, null, SnapshotFormat.BINARY));
+        binary.createTask(new Task("Task", "Desc", TaskStatus.NEW));
+        byte[] bytes = Files.readAllBytes(tempFile.toPath());
+        bytes[10] ^= 1;
+        Files.write(tempFile.toPath(), bytes);
+
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(tempFile));
+        assertEquals("Контрольная сумма снимка не совпадает", exception.getMessage());
+    }
+
+    @Test
+    void shouldConvertCsvSnapshotToBinary() throws IOException, NotFoundException {
+        Epic epic = new Epic("Epic1", "Desc");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Sub", "Desc", TaskStatus.IN_PROGRESS, Duration.ofMinutes(45),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId()));
+        File binaryFile = File.createTempFile("task_manager", ".bin");
+        FileBackedTaskManager loaded = null;
+        try {
+            FileBackedTaskManager.convertCsvToBinary(tempFile, binaryFile);
+            loaded = FileBackedTaskManager.loadFromFile(binaryFile);
+
+            assertEquals(1, loaded.getSubtasks().size());
+            assertEquals(LocalDateTime.of(2025, 5, 1, 10, 45), loaded.getEpicById(epic.getId()).orElseThrow().getEndTime());
+            assertTrue(binaryFile.length() < tempFile.length());
+        } finally {
+            if (loaded != null) {
+                loaded.close(); // до удаления файлов, иначе журнал просмотров допишется заново
+            }
+            binaryFile.delete();
+            new File(binaryFile.getPath() + ".history").delete();
+        }
+    }
+
+    @Test
+    void historyShouldSurviveRestartWithoutDuplicates() throws NotFoundException {
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Task removed = new Task("Removed", "Desc", TaskStatus.NEW);
+        manager.createTask(removed);
+
+        manager.getTaskById(task.getId());
+        manager.getEpicById(epic.getId());
+        manager.getTaskById(removed.getId());
+        manager.getTaskById(task.getId());
+        manager.deleteTask(removed.getId());
+        manager.close();
+
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        try {
+            assertEquals(List.of(epic.getId(), task.getId()),
+                    loaded.getHistory().stream().map(Task::getId).toList());
+        } finally {
+            loaded.close();
+        }
+    }
+
+    @Test
+    void reusedIdOfDeletedTaskShouldNotInheritItsViews() throws NotFoundException {
+        Task kept = new Task("Kept", "Desc", TaskStatus.NEW);
+        manager.createTask(kept);
+        Task removed = new Task("Removed", "Desc", TaskStatus.NEW);
+        manager.createTask(removed);
+        manager.getTaskById(removed.getId());
+        manager.deleteTask(removed.getId());
+        manager.close();
+
+        // после перезапуска id удалённой задачи с наибольшим id выдаётся заново
+        FileBackedTaskManager restarted = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        Task fresh = new Task("Fresh", "Desc", TaskStatus.NEW);
+        restarted.createTask(fresh);
+        assertEquals(removed.getId(), fresh.getId());
+        restarted.close();
+
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        try {
+            assertTrue(loaded.getHistory().isEmpty(), "Новую задачу никто не просматривал");
+        } finally {
+            loaded.close();
+        }
+    }
+
+    @Test
+    void historyLogShouldBeCompactedToLiveHistory() throws IOException, NotFoundException {
+        Task first = new Task("First", "Desc", TaskStatus.NEW);
+        manager.createTask(first);
+        Task second = new Task("Second", "Desc", TaskStatus.NEW);
+        manager.createTask(second);
+
+        for (int i = 0; i < 3000; i++) {
+            manager.getTaskById(i % 2 == 0 ? first.getId() : second.getId());
+        }
+        manager.close();
+
+        List<String> lines = Files.readAllLines(new File(tempFile.getPath() + ".history").toPath());
+        assertTrue(lines.size() < 3000, "Журнал просмотров должен сжиматься");
+        FileBackedTaskManager loaded = opened(FileBackedTaskManager.loadFromFile(tempFile));
+        try {
+            assertEquals(List.of(first.getId(), second.getId()),
+                    loaded.getHistory().stream().map(Task::getId).toList());
+        } finally {
+            loaded.close();
+        }
+    }
+
+    @Test
+    void viewsShouldKeepWorkingAfterHistoryLogFailure() throws InterruptedException, NotFoundException {
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        manager.createTask(task);
+        // на месте журнала просмотров каталог: фоновая запись падает на первом же сбросе
+        assertTrue(new File(tempFile.getPath() + ".history").mkdir());
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (manager.getPersistenceMetrics().getDroppedViews() == 0 && System.nanoTime() < deadline) {
+            assertEquals(task.getId(), manager.getTaskById(task.getId()).orElseThrow().getId());
+            Thread.sleep(10);
+        }
+
+        assertTrue(manager.getPersistenceMetrics().getDroppedViews() > 0, "Просмотры после ошибки отбрасываются");
+        assertEquals(List.of(task), manager.getHistory());
+        manager.close();
+    }
+
+    @Test
+    void shouldRejectFileWithOverlappingTasks() throws IOException {
+        List<String> lines = List.of(
+                "id,type,name,status,description,duration,startTime,epic",
+                "1,TASK,Task1,NEW,Desc,60,2025-01-01T10:00,",
+                "2,TASK,Task2,NEW,Desc,30,2025-01-01T12:00,",
+                "3,TASK,Task3,NEW,Desc,30,2025-01-01T10:30,");
+        Files.write(tempFile.toPath(), lines, StandardCharsets.UTF_8);
+
+        ManagerSaveException exception = assertThrows(ManagerSaveException.class,
+                () -> FileBackedTaskManager.loadFromFile(tempFile));
+
+        assertTrue(exception.getMessage().contains("пересекающиеся"));
+    }
+
     @Test
     void shouldThrowExceptionWhenFileNotExists() {
         File nonExistentFile = new File("nonexistent_file.csv");
@@ -0,0 +1,39 @@
+import manager.HistoryManager;
+import manager.Managers;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.util.Random;
+
+/**
+ * Замер памяти истории под нагрузкой: views просмотров по distinct разным задачам со случайным выбором.
+ * Запуск: HistoryCapacityBenchmark [ёмкость] [просмотров] [разных задач].
+ */
+public class HistoryCapacityBenchmark {
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : Managers.DEFAULT_HISTORY_CAPACITY;
+        int views = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int distinct = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+        HistoryManager history = Managers.getDefaultHistory(capacity);
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 1; i <= views; i++) {
+            task.setId(random.nextInt(distinct) + 1);
+            history.add(task);
+            if (i % (views / 10) == 0) {
+                System.out.printf("%,d просмотров: в истории %,d задач, занято %,d КБ%n",
+                        i, history.getHistory().size(), usedMemory() / 1024);
+            }
+        }
+        System.out.printf("%,d просмотров за %d мс%n", views, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
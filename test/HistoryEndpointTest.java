@@ -1,6 +1,10 @@
+import manager.InMemoryTaskManager;
+import manager.PartitionedHistoryManager;
 import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
 import tasks.Task;
 import tasks.TaskStatus;
+import tasks.TaskViews;
 
 import java.net.URI;
 import java.net.http.HttpRequest;
@@ -35,4 +39,69 @@ public class HistoryEndpointTest extends BaseHttpTest {
         assertEquals(1, history.length);
         assertEquals("Task 1", history[0].getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetTop_returnsMostViewedTasks() throws Exception {
+        Task cold = new Task("Cold", "Desc", TaskStatus.NEW);
+        taskManager.createTask(cold);
+        Task hot = new Task("Hot", "Desc", TaskStatus.NEW);
+        taskManager.createTask(hot);
+        taskManager.getTaskById(cold.getId());
+        taskManager.getTaskById(hot.getId());
+        taskManager.getTaskById(hot.getId());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(HISTORY_URL + "/top?k=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        TaskViews[] top = gson.fromJson(response.body(), TaskViews[].class);
+        assertEquals(1, top.length);
+        assertEquals("Hot", top[0].getTask().getName());
+        assertEquals(2, top[0].getViews(), 1e-9);
+
+        request = HttpRequest.newBuilder().uri(URI.create(HISTORY_URL + "/top?k=abc")).GET().build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testGetHistory_isSeparatedByClientHeader() throws Exception {
+        taskServer.stop();
+        taskManager = new InMemoryTaskManager(new PartitionedHistoryManager(10, 100));
+        taskServer = new HttpTaskServer(taskManager);
+        taskServer.start();
+        Task first = new Task("Task 1", "Desc", TaskStatus.NEW);
+        taskManager.createTask(first);
+        Task second = new Task("Task 2", "Desc", TaskStatus.NEW);
+        taskManager.createTask(second);
+
+        view("http://localhost:8080/tasks/" + first.getId(), "alice");
+        view("http://localhost:8080/tasks/" + second.getId(), "bob");
+
+        assertEquals(1, history("alice").length);
+        assertEquals("Task 1", history("alice")[0].getName());
+        assertEquals("Task 2", history("bob")[0].getName());
+        assertEquals(0, history(null).length, "Просмотры клиентов не попадают в общую историю");
+    }
+
+    private void view(String url, String clientId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("X-Client-Id", clientId)
+                .GET()
+                .build();
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private Task[] history(String clientId) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(HISTORY_URL)).GET();
+        if (clientId != null) {
+            builder.header("X-Client-Id", clientId);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return gson.fromJson(response.body(), Task[].class);
+    }
+}
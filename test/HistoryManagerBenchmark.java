@@ -0,0 +1,49 @@
+import manager.ArrayHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Сравнение пропускной способности и объёма выделяемой памяти у истории на связном списке и на массивах.
+ * Запуск: HistoryManagerBenchmark [просмотров] [разных задач] [ёмкость].
+ */
+public class HistoryManagerBenchmark {
+
+    public static void main(String[] args) {
+        int views = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Task[] tasks = new Task[distinct];
+        for (int i = 0; i < distinct; i++) {
+            tasks[i] = new Task(i + 1, "Задача " + i, "Описание", TaskStatus.NEW, null, null);
+        }
+        for (int round = 0; round < 3; round++) {
+            run("InMemoryHistoryManager", () -> new InMemoryHistoryManager(capacity), tasks, views);
+            run("ArrayHistoryManager", () -> new ArrayHistoryManager(capacity), tasks, views);
+        }
+    }
+
+    private static void run(String name, Supplier<HistoryManager> factory, Task[] tasks, int views) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        HistoryManager history = factory.get();
+        Random random = new Random(42);
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < views; i++) {
+            history.add(tasks[random.nextInt(tasks.length)]);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-24s %,.0f просмотров/с, %.1f байт на просмотр%n",
+                name, views * 1e9 / nanos, (double) allocated / views);
+    }
+}
@@ -0,0 +1,100 @@
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import server.HttpTaskServer;
+import server.ServerConfig;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный прогон HttpTaskServer в каждом режиме исполнителя: clients клиентов одновременно шлют по
+ * requests запросов. InMemoryTaskManager нагружается чтением списка задач (запись в нём не потокобезопасна),
+ * FileBackedTaskManager — созданием задач, каждое из которых переписывает файл.
+ * Запуск: HttpServerLoadBenchmark [клиентов] [запросов на клиента].
+ */
+public class HttpServerLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<ServerConfig> configs = List.of(ServerConfig.fixed().withPort(0), ServerConfig.virtual().withPort(0));
+        for (ServerConfig config : configs) {
+            InMemoryTaskManager inMemory = new InMemoryTaskManager();
+            for (int i = 0; i < 100; i++) {
+                inMemory.createTask(new Task("Задача " + i, "Описание", TaskStatus.NEW));
+            }
+            run("InMemory", inMemory, config, clients, requests, false);
+
+            File file = File.createTempFile("load", ".csv");
+            try {
+                run("FileBacked", new FileBackedTaskManager(file), config, clients, requests, true);
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    private static void run(String name, TaskManager manager, ServerConfig config, int clients, int requests,
+                            boolean write) throws Exception {
+        HttpTaskServer server = new HttpTaskServer(manager, config);
+        server.start();
+        URI uri = URI.create("http://localhost:" + server.getPort() + (write ? "/tasks" : "/tasks?status=NEW"));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        long[] latencies = new long[clients * requests];
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int offset = c * requests;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < requests; i++) {
+                        long begin = System.nanoTime();
+                        send(client, uri, write);
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            server.stop();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %-10s %,8.0f запросов/с, p50 %6.2f мс, p99 %6.2f мс%n", name, config,
+                latencies.length * 1e9 / elapsed, latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+
+    private static void send(HttpClient client, URI uri, boolean write) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (write) {
+            builder.POST(HttpRequest.BodyPublishers.ofString(
+                    "{\"name\":\"Задача\",\"description\":\"Описание\",\"status\":\"NEW\"}"));
+        } else {
+            builder.GET();
+        }
+        HttpResponse<Void> response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Неожиданный ответ " + response.statusCode());
+        }
+    }
+}
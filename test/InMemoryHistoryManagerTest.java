@@ -11,6 +11,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryHistoryManagerTest {
@@ -92,4 +93,30 @@ class InMemoryHistoryManagerTest {
         assertDoesNotThrow(() -> historyManager.remove(t1.getId()),
                 "Повторное удаление не должно бросать исключение");
     }
+
+    @Test
+    void fullHistoryShouldEvictLeastRecentlyViewedTask() {
+        HistoryManager bounded = new InMemoryHistoryManager(2);
+        Task t1 = new Task("A", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        t1.setId(1);
+        Task t2 = new Task("B", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        t2.setId(2);
+        Task t3 = new Task("C", "desc", TaskStatus.NEW, Duration.ZERO, null);
+        t3.setId(3);
+
+        bounded.add(t1);
+        bounded.add(t2);
+        bounded.add(t1);
+        bounded.add(t3);
+
+        assertEquals(List.of(t1, t3), bounded.getHistory(), "Должна вытесняться давно не просмотренная задача");
+        bounded.remove(t3.getId());
+        bounded.add(t2);
+        assertEquals(List.of(t1, t2), bounded.getHistory(), "После удаления место в истории освобождается");
+    }
+
+    @Test
+    void capacityShouldBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
 }
@@ -0,0 +1,103 @@
+import tasks.Task;
+import tasks.TaskStatus;
+import util.IntHashSet;
+import util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Сравнение хранилища задач на IntObjectHashMap с HashMap&lt;Integer, Task&gt;, который был в менеджере раньше:
+ * память на запись без самих задач и время поиска по случайному id. Отдельно — удаление id подзадач из эпика:
+ * IntHashSet против прежнего List&lt;Integer&gt;.
+ * Запуск: IntCollectionsBenchmark [задач] [поисков] [подзадач в эпике].
+ */
+public class IntCollectionsBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int subtasks = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task(i + 1, "Задача", "Описание", TaskStatus.NEW, null, null);
+        }
+        int[] ids = new int[lookups];
+        Random random = new Random(42);
+        for (int i = 0; i < lookups; i++) {
+            // id, которых нет в карте, тоже ищутся: так ведёт себя GET /tasks/{id} на удалённые задачи
+            ids[i] = random.nextInt(count + count / 10) + 1;
+        }
+
+        long before = usedMemory();
+        Map<Integer, Task> boxed = new HashMap<>();
+        for (Task task : tasks) {
+            boxed.put(task.getId(), task);
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntObjectHashMap<Task> primitive = new IntObjectHashMap<>();
+        for (Task task : tasks) {
+            primitive.put(task.getId(), task);
+        }
+        long primitiveBytes = usedMemory() - before;
+
+        System.out.printf("%,d задач: HashMap %d Б на запись, IntObjectHashMap %d Б на запись%n",
+                count, boxedBytes / count, primitiveBytes / count);
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long found = 0;
+            for (int id : ids) {
+                if (boxed.get(id) != null) {
+                    found++;
+                }
+            }
+            long boxedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long foundPrimitive = 0;
+            for (int id : ids) {
+                if (primitive.get(id) != null) {
+                    foundPrimitive++;
+                }
+            }
+            long primitiveNanos = System.nanoTime() - start;
+            if (found != foundPrimitive) {
+                throw new IllegalStateException("Карты вернули разное число задач");
+            }
+            System.out.printf("поиск: HashMap %.1f нс, IntObjectHashMap %.1f нс%n",
+                    (double) boxedNanos / lookups, (double) primitiveNanos / lookups);
+        }
+
+        List<Integer> list = new ArrayList<>();
+        IntHashSet set = new IntHashSet();
+        for (int i = 1; i <= subtasks; i++) {
+            list.add(i);
+            set.add(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 1; i <= subtasks; i++) {
+            list.remove(Integer.valueOf(i * 7919 % subtasks + 1));
+        }
+        long listNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 1; i <= subtasks; i++) {
+            set.remove(i * 7919 % subtasks + 1);
+        }
+        long setNanos = System.nanoTime() - start;
+        System.out.printf("удаление %,d подзадач из эпика: List %d мкс, IntHashSet %d мкс%n",
+                subtasks, listNanos / 1000, setNanos / 1000);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+import util.IntHashSet;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntHashSetTest {
+
+    @Test
+    void shouldKeepUniqueValuesInInsertionOrder() {
+        IntHashSet set = new IntHashSet();
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(3));
+        assertFalse(set.add(5));
+        assertTrue(set.add(7));
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+
+        assertEquals(2, set.size());
+        assertArrayEquals(new int[]{5, 7}, set.toArray());
+    }
+
+    @Test
+    void listViewShouldBeReadOnly() {
+        IntHashSet set = new IntHashSet();
+        set.add(1);
+        set.add(2);
+        List<Integer> list = set.asList();
+
+        assertEquals(List.of(1, 2), list);
+        assertEquals(2, list.get(1));
+        assertTrue(list.contains(1));
+        assertThrows(UnsupportedOperationException.class, () -> list.add(3));
+    }
+
+    @Test
+    void listViewShouldIndexAfterRemovals() {
+        IntHashSet set = new IntHashSet();
+        for (int i = 1; i <= 10; i++) {
+            set.add(i);
+        }
+        set.remove(1);
+        set.remove(4);
+        set.remove(10);
+        List<Integer> list = set.asList();
+
+        assertEquals(List.of(2, 3, 5, 6, 7, 8, 9), list);
+        assertEquals(5, list.get(2));
+        assertEquals(9, list.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(7));
+        set.add(11);
+        assertEquals(11, list.get(7));
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import util.IntIntHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntIntHashMapTest {
+
+    @Test
+    void shouldPutGetAndRemoveValues() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        map.put(0, 10);
+        map.put(-5, 20);
+        map.put(0, 30);
+
+        assertEquals(2, map.size());
+        assertEquals(30, map.getOrDefault(0, -1));
+        assertEquals(-1, map.getOrDefault(7, -1));
+        assertTrue(map.remove(-5));
+        assertFalse(map.remove(-5));
+        assertFalse(map.containsKey(-5));
+    }
+
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void shouldPutGetAndRemoveValues() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertEquals("one", map.get(1));
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals("uno", map.remove(1));
+        assertNull(map.get(1));
+        assertFalse(map.containsKey(1));
+        assertTrue(map.containsKey(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void shouldIterateInInsertionOrder() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(30, "c");
+        map.put(10, "a");
+        map.put(20, "b");
+        map.remove(10);
+        map.put(40, "d");
+
+        assertEquals(List.of("c", "b", "d"), new ArrayList<>(map.values()));
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(List.of(30, 20, 40), keys);
+    }
+
+    @Test
+    void shouldIterateValuesAfterKeyInKeyOrder() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        for (int key = 1; key <= 6; key++) {
+            map.put(key, "v" + key);
+        }
+        map.remove(3);
+
+        assertEquals(List.of("v4", "v5", "v6"), collect(map.valuesAfter(2)));
+        assertEquals(List.of("v4", "v5", "v6"), collect(map.valuesAfter(3)));
+        assertTrue(collect(map.valuesAfter(6)).isEmpty());
+
+        map.put(3, "v3");
+        map.put(-1, "v-1");
+        assertEquals(List.of("v-1", "v1", "v2", "v3", "v4", "v5", "v6"), collect(map.valuesAfter(Integer.MIN_VALUE)));
+        assertEquals("v3", map.get(3));
+        map.put(0, "v0");
+        assertEquals(List.of("v0", "v1"), collect(map.valuesAfter(-1)).subList(0, 2));
+    }
+
+    @Test
+    void valuesAfterShouldKeepInsertionOrder() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(30, "c");
+        map.put(10, "a");
+        map.put(20, "b");
+
+        assertEquals(List.of("b", "c"), collect(map.valuesAfter(10)));
+        map.remove(20);
+        assertEquals(List.of("c"), collect(map.valuesAfter(10)));
+        map.put(15, "e");
+        assertEquals(List.of("e", "c"), collect(map.valuesAfter(10)));
+        assertEquals(List.of("c", "a", "e"), new ArrayList<>(map.values()));
+        assertEquals(30, map.keyAt(0));
+    }
+
+    @Test
+    void valuesAfterShouldMatchTreeMapUnderRandomOperations() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            if (i % 100 == 0) {
+                int after = random.nextInt(1_000) - 500;
+                assertEquals(new ArrayList<>(expected.tailMap(after, false).values()), collect(map.valuesAfter(after)));
+            }
+        }
+    }
+
+    @Test
+    void shouldBehaveLikeLinkedHashMapUnderRandomOperations() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) * 64;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+
+    private static <V> List<V> collect(Iterator<V> values) {
+        List<V> result = new ArrayList<>();
+        values.forEachRemaining(result::add);
+        return result;
+    }
+}
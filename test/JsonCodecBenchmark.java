@@ -0,0 +1,77 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import server.adapters.DurationTypeAdapter;
+import server.adapters.EpicTypeAdapter;
+import server.adapters.IntHashSetTypeAdapter;
+import server.adapters.LocalDateTimeTypeAdapter;
+import server.adapters.SubtaskTypeAdapter;
+import server.adapters.TaskTypeAdapter;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+import util.IntHashSet;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Сравнение сериализации и разбора задач через Gson по полям класса и через потоковые адаптеры:
+ * пропускная способность и объём выделяемой памяти на одну задачу.
+ * Запуск: JsonCodecBenchmark [число операций].
+ */
+public class JsonCodecBenchmark {
+
+    private interface Operation {
+        Object apply(int i);
+    }
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+                .registerTypeAdapter(IntHashSet.class, new IntHashSetTypeAdapter());
+        Gson reflective = builder.create();
+        Gson streaming = builder
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+                .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
+                .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
+                .create();
+
+        Subtask[] subtasks = new Subtask[1024];
+        String[] json = new String[subtasks.length];
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < subtasks.length; i++) {
+            subtasks[i] = new Subtask(i + 1, "Подзадача " + i, "Описание подзадачи номер " + i,
+                    TaskStatus.values()[i % 3], Duration.ofMinutes(30), start.plusHours(i), 1);
+            json[i] = reflective.toJson(subtasks[i]);
+        }
+        int mask = subtasks.length - 1;
+        for (int round = 0; round < 3; round++) {
+            run("reflective toJson", operations, i -> reflective.toJson(subtasks[i & mask]));
+            run("streaming toJson", operations, i -> streaming.toJson(subtasks[i & mask]));
+            run("reflective fromJson", operations, i -> reflective.fromJson(json[i & mask], Subtask.class));
+            run("streaming fromJson", operations, i -> streaming.fromJson(json[i & mask], Subtask.class));
+        }
+    }
+
+    private static void run(String name, int operations, Operation operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int sink = 0;
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink += operation.apply(i).hashCode();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-20s %,.0f задач/с, %.1f байт на задачу (%d)%n",
+                name, operations * 1e9 / nanos, (double) allocated / operations, sink & 1);
+    }
+}
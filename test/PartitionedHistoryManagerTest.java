@@ -0,0 +1,141 @@
+import manager.PartitionedHistoryManager;
+import org.junit.jupiter.api.Test;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedHistoryManagerTest {
+
+    @Test
+    void clientsShouldHaveIndependentHistories() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(2, 100);
+        history.add(new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        history.add(new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "bob");
+        history.add(new Task(3, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        history.add(new Task(4, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        history.add(new Task(5, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        assertEquals(List.of(3, 4), ids(history.getHistory("alice")));
+        assertEquals(List.of(2), ids(history.getHistory("bob")));
+        assertEquals(List.of(5), ids(history.getHistory()));
+        assertTrue(history.getHistory("carol").isEmpty());
+        assertEquals(3, history.getPartitionCount(), "Раздел создаётся только при первом просмотре");
+
+        history.remove(4);
+        assertEquals(List.of(3), ids(history.getHistory("alice")));
+        assertEquals(3, history.getTotalEntries());
+    }
+
+    @Test
+    void idlePartitionsShouldBeEvictedOverBudget() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(5, 20);
+        for (int client = 0; client < 10; client++) {
+            for (int id = 1; id <= 5; id++) {
+                history.add(new Task(id, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "client-" + client);
+            }
+        }
+
+        assertTrue(history.getTotalEntries() <= 20);
+        assertEquals(history.getPartitionCount() * 5L, history.getTotalEntries());
+        assertEquals(5, history.getHistory("client-9").size(), "Последний активный клиент не вытесняется");
+        assertTrue(history.getHistory("client-0").isEmpty(), "Давно не активный клиент вытесняется");
+    }
+
+    @Test
+    void concurrentClientsShouldKeepBudgetAccounting() throws Exception {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(10, 5_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    Task task = new Task(i % 25, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+                    history.add(task, "client-" + thread + "-" + (i % 1_000));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long actual = 0;
+        for (int t = 0; t < 8; t++) {
+            for (int c = 0; c < 1_000; c++) {
+                actual += history.getHistory("client-" + t + "-" + c).size();
+            }
+        }
+        assertEquals(actual, history.getTotalEntries());
+        assertTrue(actual <= 5_000 + 8 * 10, "Бюджет может превышаться только на время вытеснения");
+    }
+
+    @Test
+    void removeShouldOnlyTouchPartitionsThatHoldTask() {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(2, 100);
+        history.add(new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        history.add(new Task(2, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        // задача 1 вытеснена по ёмкости раздела
+        history.add(new Task(3, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "alice");
+        history.add(new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null), "bob");
+
+        history.remove(1);
+        history.remove(1);
+        assertEquals(List.of(2, 3), ids(history.getHistory("alice")));
+        assertTrue(history.getHistory("bob").isEmpty());
+        assertEquals(2, history.getTotalEntries());
+    }
+
+    @Test
+    void removeRacingWithEvictionShouldNotSubtractTwice() throws Exception {
+        PartitionedHistoryManager history = new PartitionedHistoryManager(10, 200);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    Task task = new Task(i % 15, "Task", "desc", TaskStatus.NEW, Duration.ZERO, null);
+                    history.add(task, "client-" + thread + "-" + (i % 100));
+                }
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                history.remove(i % 15);
+            }
+        }));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long actual = 0;
+        for (int t = 0; t < 3; t++) {
+            for (int c = 0; c < 100; c++) {
+                actual += history.getHistory("client-" + t + "-" + c).size();
+            }
+        }
+        assertEquals(actual, history.getTotalEntries());
+    }
+
+    @Test
+    void budgetShouldFitOnePartition() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedHistoryManager(10, 5));
+    }
+
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
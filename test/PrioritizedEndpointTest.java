@@ -1,12 +1,19 @@
 import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Subtask;
 import tasks.Task;
 import tasks.TaskStatus;
+import tasks.TimeSlot;
 
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -38,4 +45,122 @@ public class PrioritizedEndpointTest extends BaseHttpTest {
         assertEquals("Task 2", tasks[0].getName()); // раньше по времени
         assertEquals("Task 1", tasks[1].getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedTasks_filtersByTimeWindowAndStatus() throws Exception {
+        taskManager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 9, 0)));
+        taskManager.createTask(new Task("Task 2", "Desc", TaskStatus.DONE,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 10, 0)));
+        taskManager.createTask(new Task("Task 3", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 11, 0)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "?from=2024-01-01T09:30&status=new"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Task 3", tasks[0].getName());
+    }
+
+    @Test
+    public void testGetPrioritizedTasks_badQueryReturns400() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "?from=yesterday"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    public void testGetPrioritizedTasks_filtersByTypeAndStatus() throws Exception {
+        Epic epic = new Epic("Epic", "Desc");
+        taskManager.createEpic(epic);
+        taskManager.createTask(new Task("Task", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 10, 0)));
+        taskManager.createSubtask(new Subtask("Subtask 1", "Desc", TaskStatus.DONE,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 9, 0), epic.getId()));
+        taskManager.createSubtask(new Subtask("Subtask 2", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 11, 0), epic.getId()));
+
+        HttpResponse<String> byType = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "?type=subtask&status=new")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, byType.statusCode());
+        Task[] subtasks = gson.fromJson(byType.body(), Task[].class);
+        assertEquals(1, subtasks.length);
+        assertEquals("Subtask 2", subtasks[0].getName());
+
+        HttpResponse<String> byStatus = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "?status=new&to=2024-01-01T12:00")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Task[] tasks = gson.fromJson(byStatus.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Task", tasks[0].getName());
+        assertEquals("Subtask 2", tasks[1].getName());
+    }
+
+    @Test
+    public void testGetPrioritizedTasks_pagesTasksWithSameStart() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW, Duration.ZERO, start));
+        }
+
+        List<String> names = new ArrayList<>();
+        String url = PRIORITIZED_URL + "?limit=1";
+        while (url != null) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            for (Task task : gson.fromJson(response.body(), Task[].class)) {
+                names.add(task.getName());
+            }
+            url = response.headers().firstValue("X-Next-Cursor")
+                    .map(cursor -> PRIORITIZED_URL + "?limit=1&after="
+                            + URLEncoder.encode(cursor, StandardCharsets.UTF_8))
+                    .orElse(null);
+        }
+        assertEquals(List.of("Task 1", "Task 2", "Task 3"), names);
+    }
+
+    @Test
+    public void testGetPrioritizedTasks_rejectsUnsupportedQuery() throws Exception {
+        for (String query : List.of("?epic=1", "?from=2024-01-02T00:00&to=2024-01-01T00:00",
+                "?type=task&limit=5")) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(PRIORITIZED_URL + query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), query);
+        }
+        HttpResponse<String> slots = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "/free-slots?duration=0")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, slots.statusCode());
+    }
+
+    @Test
+    public void testGetFreeSlots_returnsEarliestWindows() throws Exception {
+        taskManager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(PRIORITIZED_URL + "/free-slots?duration=30&from=2024-01-01T09:00&limit=2"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        TimeSlot[] slots = gson.fromJson(response.body(), TimeSlot[].class);
+        assertEquals(1, slots.length);
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), slots[0].getStart());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 30), slots[0].getEnd());
+    }
+}
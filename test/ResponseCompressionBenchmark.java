@@ -0,0 +1,81 @@
+import manager.InMemoryTaskManager;
+import server.HttpTaskServer;
+import server.ServerConfig;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Замер байт на проводе и процессорного времени сервера на один GET /tasks без сжатия, с gzip и с deflate.
+ * Время сервера — сумма времени процессора всех потоков процесса за вычетом клиента, поэтому его стоит
+ * сравнивать между режимами, а не читать как абсолютное.
+ * Запуск: ResponseCompressionBenchmark [число запросов] [уровень сжатия].
+ */
+public class ResponseCompressionBenchmark {
+
+    private static final int[] BOARD_SIZES = {10, 100, 1_000, 10_000};
+    private static final String[] ENCODINGS = {"identity", "gzip", "deflate"};
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : ServerConfig.DEFAULT_COMPRESSION_LEVEL;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        HttpClient client = HttpClient.newHttpClient();
+
+        for (int size : BOARD_SIZES) {
+            InMemoryTaskManager manager = new InMemoryTaskManager();
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+            for (int i = 0; i < size; i++) {
+                manager.createTask(new Task("Задача " + i, "Описание задачи номер " + i, TaskStatus.values()[i % 3],
+                        Duration.ofMinutes(30), start.plusHours(i)));
+            }
+            HttpTaskServer server = new HttpTaskServer(manager, ServerConfig.fixed().withPort(0)
+                    .withCompression(level, ServerConfig.DEFAULT_COMPRESSION_THRESHOLD));
+            server.start();
+            try {
+                String url = "http://localhost:" + server.getPort() + "/tasks";
+                for (String encoding : ENCODINGS) {
+                    HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url))
+                            .header("Accept-Encoding", encoding).GET().build();
+                    // прогрев
+                    for (int i = 0; i < requests; i++) {
+                        client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    }
+                    long bytes = 0;
+                    long cpuBefore = processCpuNanos(threads);
+                    long clientBefore = threads.getCurrentThreadCpuTime();
+                    long wallBefore = System.nanoTime();
+                    for (int i = 0; i < requests; i++) {
+                        bytes += client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+                    }
+                    long wall = System.nanoTime() - wallBefore;
+                    long clientCpu = threads.getCurrentThreadCpuTime() - clientBefore;
+                    long serverCpu = processCpuNanos(threads) - cpuBefore - clientCpu;
+                    System.out.printf("%,6d задач %-8s: %,9d байт, процессор %,7d мкс, время %,7d мкс на запрос%n",
+                            size, encoding, bytes / requests, serverCpu / requests / 1000, wall / requests / 1000);
+                }
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    private static long processCpuNanos(ThreadMXBean threads) {
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            long time = threads.getThreadCpuTime(id);
+            if (time > 0) {
+                total += time;
+            }
+        }
+        return total;
+    }
+}
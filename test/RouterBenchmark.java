@@ -0,0 +1,211 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import server.handlers.Router;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * Стоимость разбора пути на запрос: дерево маршрутов {@link Router} против прежней проверки
+ * path.matches(...) и split в каждом обработчике. Запросы подставные, без сети и без отправки ответа.
+ * Запуск: RouterBenchmark [число запросов].
+ */
+public class RouterBenchmark {
+
+    private static final String[][] REQUESTS = {
+            {"GET", "/tasks"}, {"GET", "/tasks/17"}, {"DELETE", "/tasks/4096"}, {"GET", "/subtasks/123"},
+            {"GET", "/subtasks/epic/8"}, {"GET", "/epics/55"}, {"GET", "/epics/55/subtasks"}, {"GET", "/history"},
+    };
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        Router.Endpoint endpoint = (exchange, params) -> sink++;
+        Router.Endpoint withId = (exchange, params) -> sink += params.getInt("id");
+        Router.Endpoint withEpicId = (exchange, params) -> sink += params.getInt("epicId");
+        Router router = new Router()
+                .add("GET", "/tasks", endpoint)
+                .add("POST", "/tasks", endpoint)
+                .add("DELETE", "/tasks", endpoint)
+                .add("GET", "/tasks/{id}", withId)
+                .add("DELETE", "/tasks/{id}", withId)
+                .add("GET", "/subtasks", endpoint)
+                .add("GET", "/subtasks/{id}", withId)
+                .add("GET", "/subtasks/epic/{epicId}", withEpicId)
+                .add("GET", "/epics", endpoint)
+                .add("GET", "/epics/{id}", withId)
+                .add("GET", "/epics/{epicId}/subtasks", withEpicId)
+                .add("GET", "/history", endpoint)
+                .add("GET", "/history/top", endpoint)
+                .add("GET", "/prioritized", endpoint)
+                .add("POST", "/batch", endpoint);
+
+        FakeExchange[] exchanges = new FakeExchange[REQUESTS.length];
+        for (int i = 0; i < REQUESTS.length; i++) {
+            exchanges[i] = new FakeExchange(REQUESTS[i][0], URI.create("http://localhost:8080" + REQUESTS[i][1]));
+        }
+        for (int round = 0; round < 3; round++) {
+            run("Router", requests, exchanges, exchange -> router.handle(exchange));
+            run("matches + split", requests, exchanges, RouterBenchmark::regexDispatch);
+        }
+    }
+
+    private interface Dispatch {
+        void dispatch(HttpExchange exchange) throws Exception;
+    }
+
+    private static void run(String name, int requests, FakeExchange[] exchanges, Dispatch dispatch) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        try {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                dispatch.dispatch(exchanges[i % exchanges.length]);
+            }
+            long nanos = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            System.out.printf("%-16s %,.1f нс на запрос, %.1f байт на запрос%n",
+                    name, (double) nanos / requests, (double) allocated / requests);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // так пути разбирались до Router: регулярное выражение на каждую проверку и split для id
+    private static void regexDispatch(HttpExchange exchange) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/tasks")) {
+            if (path.equals("/tasks")) {
+                sink++;
+            } else if (path.matches(".*/tasks/\\d+")) {
+                sink += extractId(path) + method.length();
+            }
+        } else if (path.startsWith("/subtasks")) {
+            if (path.equals("/subtasks")) {
+                sink++;
+            } else if (path.matches(".*/subtasks/\\d+")) {
+                sink += extractId(path);
+            } else if (path.matches(".*/subtasks/epic/\\d+")) {
+                sink += extractId(path);
+            }
+        } else if (path.startsWith("/epics")) {
+            if (path.equals("/epics")) {
+                sink++;
+            } else if (path.matches(".*/epics/\\d+")) {
+                sink += extractId(path);
+            } else if (path.matches(".*/epics/\\d+/subtasks")) {
+                String[] parts = path.split("/");
+                sink += Integer.parseInt(parts[parts.length - 2]);
+            }
+        } else if (path.startsWith("/history")) {
+            sink += path.endsWith("/top") ? 2 : 1;
+        }
+    }
+
+    private static int extractId(String path) {
+        String[] parts = path.split("/");
+        return Integer.parseInt(parts[parts.length - 1]);
+    }
+
+    private static final class FakeExchange extends HttpExchange {
+        private final String method;
+        private final URI uri;
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+
+        FakeExchange(String method, URI uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return uri;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) {
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return -1;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+}
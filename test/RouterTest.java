@@ -0,0 +1,112 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.handlers.Router;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouterTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Router router = new Router();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        router.add("GET", "/items", (exchange, params) -> reply(exchange, "list"))
+                .add("GET", "/items/{id}", (exchange, params) -> reply(exchange, "item " + params.getInt("id")))
+                .add("DELETE", "/items/{id}", (exchange, params) -> reply(exchange, "deleted " + params.getInt("id")))
+                .add("GET", "/items/recent", (exchange, params) -> reply(exchange, "recent"))
+                .add("GET", "/items/{id}/parts/{partId}", (exchange, params) ->
+                        reply(exchange, "part " + params.getInt("id") + "." + params.getInt("partId")))
+                .add("GET", "/items/recent/parts", (exchange, params) -> reply(exchange, "recent parts"))
+                .add("GET", "/items/{id}/fail", (exchange, params) -> {
+                    throw new BadRequestException("Плохой запрос " + params.getInt("id"));
+                })
+                .add("GET", "/items/{id}/bug", (exchange, params) -> {
+                    throw new IllegalArgumentException("fromKey > toKey");
+                });
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", router);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldPassTypedParamsToEndpoint() throws Exception {
+        assertResponse(200, "list", "GET", "/items");
+        assertResponse(200, "item 42", "GET", "/items/42");
+        assertResponse(200, "deleted 7", "DELETE", "/items/7");
+        assertResponse(200, "part 3.14", "GET", "/items/3/parts/14");
+        assertResponse(200, "item 2147483647", "GET", "/items/2147483647");
+    }
+
+    @Test
+    void staticSegmentShouldWinOverParamAndFallBackToIt() throws Exception {
+        assertResponse(200, "recent", "GET", "/items/recent");
+        assertResponse(200, "recent parts", "GET", "/items/recent/parts");
+        assertEquals(404, send("GET", "/items/recent/parts/1").statusCode());
+    }
+
+    @Test
+    void shouldAnswer404ForUnknownPathsAnd405ForOtherMethods() throws Exception {
+        for (String path : new String[]{"/", "/other", "/items/", "/items/x", "/items/2147483648", "/items/1/parts",
+                "/itemsx", "/items/+1"}) {
+            assertEquals(404, send("GET", path).statusCode(), path);
+        }
+        assertEquals(405, send("POST", "/items/1").statusCode());
+    }
+
+    @Test
+    void shouldMapEndpointExceptionsToStatusCodes() throws Exception {
+        assertResponse(400, "Плохой запрос 5", "GET", "/items/5/fail");
+        assertResponse(500, "Internal Server Error", "GET", "/items/5/bug");
+    }
+
+    @Test
+    void shouldRejectInvalidPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> router.add("GET", "/items/{id}", (exchange, params) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> router.add("GET", "items", (exchange, params) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> router.add("GET", "/a//b", (exchange, params) -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> router.add("GET", "/a/{x}/{x}", (exchange, params) -> {
+        }));
+    }
+
+    private void assertResponse(int status, String body, String method, String path) throws Exception {
+        HttpResponse<String> response = send(method, path);
+        assertEquals(status, response.statusCode(), path);
+        assertEquals(body, response.body(), path);
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getAddress().getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void reply(HttpExchange exchange, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,93 @@
+import exceptions.TasksOverlapException;
+import manager.InMemoryTaskManager;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Замер вставки в расписание с проверкой пересечений при разном числе уже запланированных задач.
+ * Расписание заполняется задачами по часу через каждые два часа, затем замеряются вставки в случайные
+ * свободные промежутки и отказы для задач, которые попадают на занятое время.
+ * Запуск: ScheduleInsertBenchmark [вставок] [размер расписания...].
+ */
+public class ScheduleInsertBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int inserts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        run(1_000, Math.min(inserts, 500)); // прогрев
+        for (int size : sizes) {
+            run(size, Math.min(inserts, size));
+        }
+    }
+
+    private static void run(int size, int inserts) {
+        InMemoryTaskManager manager = new InMemoryTaskManager() {
+            @Override
+            protected void log(String message) {
+                // вывод в консоль на каждую задачу исказил бы замер
+            }
+        };
+        List<Task> prefill = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            prefill.add(new Task("Задача " + i, "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(60), BASE.plusHours(2L * i)));
+        }
+        manager.createTasks(prefill);
+
+        Random random = new Random(42);
+        boolean[] used = new boolean[size];
+        List<Task> accepted = new ArrayList<>(inserts);
+        for (int i = 0; i < inserts; i++) {
+            int gap;
+            do {
+                gap = random.nextInt(size);
+            } while (used[gap]);
+            used[gap] = true;
+            accepted.add(new Task("Вставка " + i, "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(2L * gap + 1)));
+        }
+        List<Task> rejected = new ArrayList<>(inserts);
+        for (int i = 0; i < inserts; i++) {
+            rejected.add(new Task("Отказ " + i, "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(2L * random.nextInt(size)).plusMinutes(15)));
+        }
+
+        long start = System.nanoTime();
+        for (Task task : accepted) {
+            manager.createTask(task);
+        }
+        long acceptNanos = System.nanoTime() - start;
+
+        int failures = 0;
+        start = System.nanoTime();
+        for (Task task : rejected) {
+            try {
+                manager.createTask(task);
+            } catch (TasksOverlapException e) {
+                failures++;
+            }
+        }
+        long rejectNanos = System.nanoTime() - start;
+
+        if (failures != inserts || manager.getPrioritizedTasks().size() != size + inserts) {
+            throw new IllegalStateException("Неожиданное состояние расписания после замера");
+        }
+        System.out.printf("%,d задач в расписании: вставка %,d нс, отказ при пересечении %,d нс%n",
+                size, acceptNanos / inserts, rejectNanos / inserts);
+    }
+}
@@ -0,0 +1,98 @@
+import manager.InMemoryTaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+import server.ServerConfig;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ServerConfigTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpTaskServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void virtualThreadServerShouldServeRequestsOnChosenPort() throws Exception {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.createTask(new Task("Task", "Desc", TaskStatus.NEW));
+        server = new HttpTaskServer(manager, ServerConfig.virtual().withPort(0));
+        server.start();
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + server.getPort() + "/tasks/1")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+    }
+
+    @Test
+    void requestsOverInFlightLimitShouldGet503() throws Exception {
+        // пул, а не виртуальные потоки: в JDK 21 медленное чтение тела закрепляет несущий поток, см. ServerConfig
+        server = new HttpTaskServer(new InMemoryTaskManager(),
+                new ServerConfig(ServerConfig.ExecutorMode.FIXED, 4, 0, 0, 1));
+        server.start();
+        String url = "http://localhost:" + server.getPort() + "/tasks";
+
+        // медленный клиент: тело запроса приходит не сразу, и обработчик держит единственное разрешение
+        byte[] body = "{\"name\":\"Task\",\"description\":\"Desc\",\"status\":\"NEW\"}".getBytes(StandardCharsets.UTF_8);
+        try (Socket slowClient = new Socket("localhost", server.getPort())) {
+            OutputStream out = slowClient.getOutputStream();
+            out.write(("POST /tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + body.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.write(body, 0, 1);
+            out.flush();
+
+            int status = 0;
+            for (int attempt = 0; attempt < 100 && status != 503; attempt++) {
+                Thread.sleep(20);
+                status = client.send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode();
+            }
+            assertEquals(503, status);
+
+            out.write(body, 1, body.length - 1);
+            out.flush();
+            String statusLine = new BufferedReader(new InputStreamReader(slowClient.getInputStream(),
+                    StandardCharsets.UTF_8)).readLine();
+            assertEquals("HTTP/1.1 201 Created", statusLine);
+        }
+        // разрешение возвращается после закрытия обмена, и ответ медленному клиенту может прийти чуть раньше
+        int status = 503;
+        for (int attempt = 0; attempt < 50 && status == 503; attempt++) {
+            Thread.sleep(10);
+            status = client.send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode();
+        }
+        assertEquals(200, status);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServerConfig(ServerConfig.ExecutorMode.FIXED, 0, 8080, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.fixed().withPort(70_000));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.virtual().withMaxInFlight(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.fixed().withCompression(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.fixed().withCompression(6, -1));
+    }
+}
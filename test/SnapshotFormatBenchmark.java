@@ -0,0 +1,56 @@
+import manager.FileBackedTaskManager;
+import manager.SnapshotFormat;
+import tasks.Task;
+import tasks.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Замер сохранения и загрузки снимка в текстовом и двоичном форматах.
+ * Запуск: SnapshotFormatBenchmark [число задач] [число повторов].
+ */
+public class SnapshotFormatBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            File file = File.createTempFile("benchmark", "." + format.name().toLowerCase());
+            try {
+                long saveNanos = Long.MAX_VALUE;
+                long loadNanos = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    FileBackedTaskManager manager = new FileBackedTaskManager(file, 0, null, format);
+                    List<Task> tasks = tasks(count);
+                    long start = System.nanoTime();
+                    manager.createTasks(tasks);
+                    saveNanos = Math.min(saveNanos, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    FileBackedTaskManager.loadFromFile(file);
+                    loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+                }
+                System.out.printf("%-6s %,d задач: файл %,d байт, сохранение %d мс, загрузка %d мс%n",
+                        format, count, file.length(), saveNanos / 1_000_000, loadNanos / 1_000_000);
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    private static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("Задача " + i, "Описание задачи номер " + i, TaskStatus.values()[i % 3],
+                    Duration.ofMinutes(30), start.plusHours(i)));
+        }
+        return tasks;
+    }
+}
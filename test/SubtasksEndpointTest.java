@@ -1,6 +1,7 @@
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
 import tasks.Subtask;
+import tasks.Task;
 import tasks.TaskStatus;
 
 import java.net.URI;
@@ -9,6 +10,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -66,6 +68,49 @@ public class SubtasksEndpointTest extends BaseHttpTest {
         assertEquals(TaskStatus.DONE, updatedEpic.getStatus());
     }
 
+    @Test
+    public void testCreateSubtaskForMissingEpic_returns404() throws Exception {
+        String json = gson.toJson(new Subtask("Subtask", "Desc", TaskStatus.NEW, 999));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(SUBTASK_URL)).POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode());
+        assertEquals(List.of(), taskManager.getSubtasks());
+    }
+
+    @Test
+    public void testGetSubtasks_filtersByEpicStatusAndTimeWindow() throws Exception {
+        Epic first = new Epic("Epic 1", "Desc");
+        Epic second = new Epic("Epic 2", "Desc");
+        taskManager.createEpic(first);
+        taskManager.createEpic(second);
+        taskManager.createSubtask(new Subtask("Subtask 1", "Desc", TaskStatus.NEW, Duration.ofMinutes(10),
+                LocalDateTime.of(2024, 1, 1, 9, 0), first.getId()));
+        taskManager.createSubtask(new Subtask("Subtask 2", "Desc", TaskStatus.DONE, Duration.ofMinutes(10),
+                LocalDateTime.of(2024, 1, 1, 10, 0), second.getId()));
+        taskManager.createTask(new Task("Task", "Desc", TaskStatus.NEW, Duration.ofMinutes(10),
+                LocalDateTime.of(2024, 1, 1, 10, 30)));
+
+        assertEquals(List.of("Subtask 2"), names(SUBTASK_URL + "?epic=" + second.getId()));
+        assertEquals(List.of("Subtask 1"), names(SUBTASK_URL + "?status=new"));
+        assertEquals(List.of("Subtask 2"), names(SUBTASK_URL + "?from=2024-01-01T09:30"));
+
+        for (String query : List.of("?type=subtask", "?epic=x", "?from=2024-01-02T00:00&to=2024-01-01T00:00")) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(SUBTASK_URL + query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+
+    private List<String> names(String url) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return Arrays.stream(gson.fromJson(response.body(), Subtask[].class)).map(Subtask::getName).toList();
+    }
+
     @Test
     public void testGetEpicSubtasks_returns200AndCorrectSubtasks() throws Exception {
         Epic epic = new Epic("Test epic", "Description");
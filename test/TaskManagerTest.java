@@ -1,5 +1,6 @@
 import exceptions.NotFoundException;
 import exceptions.TasksOverlapException;
+import manager.BatchOperation;
 import manager.TaskManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,9 +8,13 @@ import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
 import tasks.TaskStatus;
+import tasks.TaskType;
+import tasks.TaskViews;
+import tasks.TimeSlot;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -347,16 +352,55 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(manager.getSubtasks().isEmpty(), "Все подзадачи должны быть удалены");
     }
 
+    @Test
+    void movingSubtaskToAnotherEpicShouldUpdateBothEpics() throws NotFoundException {
+        Epic epic1 = new Epic("Epic 1", "desc");
+        Epic epic2 = new Epic("Epic 2", "desc");
+        manager.createEpic(epic1);
+        manager.createEpic(epic2);
+        Subtask sub = new Subtask("Sub", "desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic1.getId());
+        manager.createSubtask(sub);
+
+        sub.setEpicId(epic2.getId());
+        manager.updateSubtask(sub);
+
+        Epic updatedEpic1 = manager.getEpicById(epic1.getId()).orElseThrow();
+        Epic updatedEpic2 = manager.getEpicById(epic2.getId()).orElseThrow();
+        assertTrue(updatedEpic1.getSubtaskIds().isEmpty());
+        assertEquals(TaskStatus.NEW, updatedEpic1.getStatus());
+        assertNull(updatedEpic1.getStartTime());
+        assertEquals(List.of(sub.getId()), updatedEpic2.getSubtaskIds());
+        assertEquals(TaskStatus.DONE, updatedEpic2.getStatus());
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 30), updatedEpic2.getEndTime());
+    }
+
+    @Test
+    void removingAllSubtasksShouldResetEpics() throws NotFoundException {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Subtask sub = new Subtask("Sub", "desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId());
+        manager.createSubtask(sub);
+
+        manager.removeAllSubtasks();
+
+        Epic updatedEpic = manager.getEpicById(epic.getId()).orElseThrow();
+        assertTrue(updatedEpic.getSubtaskIds().isEmpty());
+        assertEquals(TaskStatus.NEW, updatedEpic.getStatus());
+        assertEquals(Duration.ZERO, updatedEpic.getDuration());
+    }
+
     @Test
     void shouldNotCreateSubtaskWithNonexistentEpic() {
         Subtask subtask = new Subtask("Subtask title", "description", TaskStatus.NEW, 123);
 
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
+        NotFoundException exception = assertThrows(
+                NotFoundException.class,
                 () -> manager.createSubtask(subtask)
         );
 
-        assertEquals("Epic с ID 123 не существует.", exception.getMessage());
+        assertEquals("Epic 123 not found", exception.getMessage());
     }
 
     @Test
@@ -404,6 +448,35 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Задача пересекается по времени с другой задачей", exception.getMessage());
     }
 
+    @Test
+    void rejectedTaskShouldNotConsumeId() {
+        Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(task1);
+        Task overlappingTask = new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(45),
+                LocalDateTime.of(2025, 5, 1, 10, 30));
+
+        assertThrows(TasksOverlapException.class, () -> manager.createTask(overlappingTask));
+        assertEquals(0, overlappingTask.getId(), "Отклонённой задаче не должен выдаваться id");
+
+        Task task3 = new Task("Task 3", "desc", TaskStatus.NEW);
+        manager.createTask(task3);
+        assertEquals(task1.getId() + 1, task3.getId(), "Отказ не должен тратить id");
+    }
+
+    @Test
+    void newTaskWithExistingIdShouldStillBeCheckedForOverlaps() {
+        Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(task1);
+        Task overlappingTask = new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(45),
+                LocalDateTime.of(2025, 5, 1, 10, 30));
+        overlappingTask.setId(task1.getId());
+
+        assertThrows(TasksOverlapException.class, () -> manager.createTask(overlappingTask));
+        assertEquals(1, manager.getTasks().size());
+    }
+
     @Test
     void shouldAllowTasksWithAdjacentTimeRanges() {
         Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
@@ -416,6 +489,443 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertDoesNotThrow(() -> manager.createTask(adjacentTask));
     }
 
+    @Test
+    void shouldAllowUpdatingTaskWithinItsOwnTimeRange() {
+        Task task = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(task);
+
+        task.setStartTime(LocalDateTime.of(2025, 5, 1, 10, 30));
+
+        assertDoesNotThrow(() -> manager.updateTask(task));
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 30),
+                manager.getPrioritizedTasks().getFirst().getStartTime());
+    }
+
+    @Test
+    void shouldKeepScheduleWhenOverlappingUpdateIsRejected() {
+        Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        Task task2 = new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 12, 0));
+        manager.createTask(task1);
+        manager.createTask(task2);
+
+        task2.setStartTime(LocalDateTime.of(2025, 5, 1, 10, 30));
+
+        assertThrows(TasksOverlapException.class, () -> manager.updateTask(task2));
+        assertEquals(2, manager.getPrioritizedTasks().size(), "Задача не должна пропасть из списка");
+        Task task3 = new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 12, 15));
+        assertThrows(TasksOverlapException.class, () -> manager.createTask(task3));
+    }
+
+    @Test
+    void shouldReleaseTimeRangeOfDeletedTask() {
+        Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(task1);
+        manager.deleteTask(task1.getId());
+
+        Task task2 = new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+
+        assertDoesNotThrow(() -> manager.createTask(task2));
+    }
+
+    @Test
+    void removingAllTasksShouldClearTheirSchedule() {
+        Task task = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(task);
+
+        manager.removeAllTasks();
+
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 2", "desc", TaskStatus.NEW,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 5, 1, 10, 0))));
+    }
+
+    @Test
+    void removingEpicsShouldClearScheduleOfTheirSubtasks() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        for (int i = 0; i < 10; i++) {
+            manager.createSubtask(new Subtask("Sub " + i, "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                    LocalDateTime.of(2025, 5, 1, 10, 0).plusHours(i), epic.getId()));
+        }
+        Epic epic2 = new Epic("Epic 2", "desc");
+        manager.createEpic(epic2);
+        manager.createSubtask(new Subtask("Sub", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 6, 1, 10, 0), epic2.getId()));
+
+        manager.deleteEpic(epic.getId());
+        assertEquals(1, manager.getPrioritizedTasks().size());
+
+        manager.removeAllEpics();
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void removingAllSubtasksShouldClearTheirSchedule() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Sub", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId()));
+
+        manager.removeAllSubtasks();
+
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void shouldFindTasksByStatusAndTimeWindow() {
+        Task task1 = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 9, 0));
+        Task task2 = new Task("Task 2", "desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 10, 0));
+        Task task3 = new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 11, 0));
+        manager.createTask(task1);
+        manager.createTask(task2);
+        manager.createTask(task3);
+        manager.updateTask(new Task(task1.getId(), "Task 1", "desc", TaskStatus.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 2, 9, 0)));
+
+        assertEquals(List.of(task3), manager.getTasksByStatus(TaskStatus.NEW));
+        assertEquals(2, manager.getTasksByStatus(TaskStatus.DONE).size());
+        assertEquals(List.of(task2, task3), manager.getPrioritizedTasks(
+                LocalDateTime.of(2025, 5, 2, 10, 0), LocalDateTime.of(2025, 5, 2, 12, 0)));
+        assertEquals(1, manager.getPrioritizedTasks(null, LocalDateTime.of(2025, 5, 2, 10, 0)).size());
+    }
+
+    @Test
+    void shouldCreateTasksAndSubtasksInBatch() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        List<Task> tasks = List.of(
+                new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 0)),
+                new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 9, 0)));
+        List<Subtask> subtasks = List.of(
+                new Subtask("Sub 1", "desc", TaskStatus.DONE, Duration.ofMinutes(30),
+                        LocalDateTime.of(2025, 5, 1, 11, 0), epic.getId()),
+                new Subtask("Sub 2", "desc", TaskStatus.DONE, null, null, epic.getId()));
+
+        manager.createTasks(tasks);
+        manager.createSubtasks(subtasks);
+
+        assertEquals(2, manager.getTasks().size());
+        assertNotEquals(tasks.get(0).getId(), tasks.get(1).getId());
+        assertEquals(tasks.get(1), manager.getPrioritizedTasks().getFirst());
+        assertEquals(2, manager.getEpicSubtasks(epic.getId()).size());
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void batchWithOverlapShouldNotApplyAnyOperation() {
+        Task existing = new Task("Task", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(existing);
+
+        assertThrows(TasksOverlapException.class, () -> manager.createTasks(List.of(
+                new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 2, 10, 0)),
+                new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 2, 10, 15)))));
+        assertThrows(TasksOverlapException.class, () -> manager.createTasks(List.of(
+                new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 30)))));
+        assertThrows(NotFoundException.class, () -> manager.applyBatch(List.of(
+                BatchOperation.create(new Task("Task 4", "desc", TaskStatus.NEW)),
+                BatchOperation.delete(TaskType.SUBTASK, existing.getId()))));
+
+        assertEquals(List.of(existing), manager.getTasks());
+        assertEquals(List.of(existing), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    void batchShouldRejectUpdateOfMissingTaskOrTaskOfOtherType() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 1, 10, 0), epic.getId());
+        manager.createSubtask(subtask);
+        Task task = new Task("Task", "desc", TaskStatus.NEW);
+        manager.createTask(task);
+
+        assertThrows(NotFoundException.class, () -> manager.applyBatch(List.of(
+                BatchOperation.update(new Task(subtask.getId(), "Task", "desc", TaskStatus.NEW,
+                        Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 2, 10, 0))))));
+        assertThrows(NotFoundException.class, () -> manager.applyBatch(List.of(
+                BatchOperation.update(new Task(task.getId() + 100, "Task", "desc", TaskStatus.NEW, null, null)))));
+        assertThrows(NotFoundException.class, () -> manager.applyBatch(List.of(
+                BatchOperation.delete(TaskType.TASK, task.getId()),
+                BatchOperation.update(new Task(task.getId(), "Task", "desc", TaskStatus.DONE, null, null)))));
+
+        assertEquals(List.of(subtask), manager.getPrioritizedTasks());
+        assertEquals(List.of(subtask), manager.getPrioritizedTasks(TaskType.SUBTASK, null, null));
+        assertEquals(List.of(task), manager.getTasks());
+        assertThrows(TasksOverlapException.class, () -> manager.createTask(new Task("Overlap", "desc",
+                TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 15))));
+    }
+
+    @Test
+    void rejectedBatchShouldNotSpendIds() {
+        Task first = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        manager.createTask(first);
+
+        assertThrows(TasksOverlapException.class, () -> manager.applyBatch(List.of(
+                BatchOperation.create(new Task("Task 2", "desc", TaskStatus.NEW)),
+                BatchOperation.create(new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                        LocalDateTime.of(2025, 5, 1, 10, 30))))));
+        Task next = new Task("Task 4", "desc", TaskStatus.NEW);
+        manager.createTask(next);
+
+        assertEquals(first.getId() + 1, next.getId());
+    }
+
+    @Test
+    void batchShouldValidateAgainstItsFinalState() {
+        Task first = new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0));
+        Task second = new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 11, 0));
+        manager.createTask(first);
+        manager.createTask(second);
+
+        // задачи меняются местами, поодиночке такие обновления отклонились бы
+        manager.applyBatch(List.of(
+                BatchOperation.update(new Task(first.getId(), "Task 1", "desc", TaskStatus.NEW,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 5, 1, 11, 0))),
+                BatchOperation.update(new Task(second.getId(), "Task 2", "desc", TaskStatus.NEW,
+                        Duration.ofMinutes(60), LocalDateTime.of(2025, 5, 1, 10, 0))),
+                BatchOperation.delete(TaskType.TASK, second.getId()),
+                BatchOperation.create(new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                        LocalDateTime.of(2025, 5, 1, 10, 0)))));
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(2, prioritized.size());
+        assertEquals("Task 3", prioritized.get(0).getName());
+        assertEquals(first.getId(), prioritized.get(1).getId());
+    }
+
+    @Test
+    void batchShouldShiftWholeScheduleButKeepUntouchedTasks() {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Task("Task " + i, "desc", TaskStatus.NEW, Duration.ofMinutes(60), start.plusHours(i)));
+        }
+        manager.createTasks(tasks);
+        Task untouched = new Task("Untouched", "desc", TaskStatus.NEW, Duration.ofMinutes(60), start.plusHours(51));
+        manager.createTask(untouched);
+
+        // каждая задача встаёт на место следующей: интервалы пакета заменяют почти всё расписание
+        List<BatchOperation> shift = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            shift.add(BatchOperation.update(new Task(tasks.get(i).getId(), "Task " + i, "desc", TaskStatus.NEW,
+                    Duration.ofMinutes(60), start.plusHours(i + 1))));
+        }
+        manager.applyBatch(shift);
+        assertEquals(start.plusHours(50), manager.getTasks().get(49).getStartTime());
+
+        List<BatchOperation> tooFar = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tooFar.add(BatchOperation.update(new Task(tasks.get(i).getId(), "Task " + i, "desc", TaskStatus.NEW,
+                    Duration.ofMinutes(60), start.plusHours(i + 2))));
+        }
+        assertThrows(TasksOverlapException.class, () -> manager.applyBatch(tooFar));
+        assertEquals(start.plusHours(1), manager.getTasks().get(0).getStartTime());
+    }
+
+    @Test
+    void shouldReturnMostViewedExistingTasks() {
+        Task hot = new Task("Hot", "Desc", TaskStatus.NEW);
+        manager.createTask(hot);
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Task removed = new Task("Removed", "Desc", TaskStatus.NEW);
+        manager.createTask(removed);
+
+        for (int i = 0; i < 5; i++) {
+            manager.getTaskById(hot.getId());
+            manager.getTaskById(removed.getId());
+        }
+        manager.getEpicById(epic.getId());
+        manager.getEpicById(epic.getId());
+        manager.deleteTask(removed.getId());
+
+        List<TaskViews> top = manager.getTopViewed(5);
+        assertEquals(List.of(hot, epic), top.stream().map(TaskViews::getTask).toList());
+        assertEquals(5, top.get(0).getViews(), 1e-9);
+        assertEquals(1, manager.getTopViewed(1).size());
+        assertThrows(IllegalArgumentException.class, () -> manager.getTopViewed(0));
+    }
+
+    @Test
+    void clearedTasksShouldFreeTopViewedPlaces() {
+        // список частых по умолчанию вмещает 100 задач, и все места занимают задачи, которые потом удаляются
+        for (int i = 0; i < 50; i++) {
+            Task task = new Task("Task " + i, "Desc", TaskStatus.NEW);
+            manager.createTask(task);
+            Epic epic = new Epic("Epic " + i, "Desc");
+            manager.createEpic(epic);
+            for (int view = 0; view < 3; view++) {
+                manager.getTaskById(task.getId());
+                manager.getEpicById(epic.getId());
+            }
+        }
+        manager.removeAllTasks();
+        manager.removeAllEpics();
+        Task fresh = new Task("Fresh", "Desc", TaskStatus.NEW);
+        manager.createTask(fresh);
+        manager.getTaskById(fresh.getId());
+
+        assertEquals(List.of(fresh), manager.getTopViewed(5).stream().map(TaskViews::getTask).toList());
+    }
+
+    @Test
+    void boardVersionShouldGrowOnChangesButNotOnReads() {
+        long initial = manager.getVersion();
+        Task task = new Task("Task", "Desc", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        long afterCreate = manager.getVersion();
+        long taskVersion = manager.getTaskById(task.getId()).orElseThrow().getVersion();
+        long epicVersion = manager.getEpicById(epic.getId()).orElseThrow().getVersion();
+
+        manager.getTasks();
+        manager.getPrioritizedTasks();
+        assertTrue(afterCreate > initial);
+        assertEquals(afterCreate, manager.getVersion(), "Чтение не меняет версию");
+
+        manager.updateTask(new Task(task.getId(), "Renamed", "Desc", TaskStatus.DONE, null, null));
+        assertTrue(manager.getTaskById(task.getId()).orElseThrow().getVersion() > taskVersion);
+        manager.createSubtask(new Subtask("Subtask", "Desc", TaskStatus.DONE, epic.getId()));
+        assertTrue(manager.getEpicById(epic.getId()).orElseThrow().getVersion() > epicVersion,
+                "Эпик меняется вместе с подзадачей");
+
+        long beforeDelete = manager.getVersion();
+        manager.deleteTask(task.getId());
+        assertTrue(manager.getVersion() > beforeDelete);
+        long beforeClear = manager.getVersion();
+        manager.removeAllEpics();
+        assertTrue(manager.getVersion() > beforeClear);
+    }
+
+    @Test
+    void shouldPageTasksByIdWithCursor() {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW));
+            manager.createSubtask(new Subtask("Subtask " + i, "Desc", TaskStatus.NEW, epic.getId()));
+        }
+        List<Task> tasks = manager.getTasks();
+        manager.deleteTask(tasks.get(1).getId());
+        // восстановленная задача вставляется после задачи 100, но страница идёт по id
+        manager.updateTask(new Task(100, "Late", "Desc", TaskStatus.NEW, null, null));
+        manager.updateTask(new Task(tasks.get(1).getId(), "Restored", "Desc", TaskStatus.NEW, null, null));
+
+        List<Task> first = manager.getTasks(0, 3);
+        List<Task> second = manager.getTasks(first.get(2).getId(), 3);
+        List<Task> last = manager.getTasks(second.get(2).getId(), 3);
+
+        assertEquals(List.of(tasks.get(0).getId(), tasks.get(1).getId(), tasks.get(2).getId()),
+                first.stream().map(Task::getId).toList());
+        assertEquals(List.of(tasks.get(3).getId(), tasks.get(4).getId(), 100),
+                second.stream().map(Task::getId).toList());
+        assertTrue(last.isEmpty());
+        assertEquals(2, manager.getSubtasks(manager.getSubtasks().get(2).getId(), 10).size());
+        assertEquals(List.of(epic), manager.getEpics(0, 10));
+        assertTrue(manager.getEpics(epic.getId(), 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasks(0, 0));
+    }
+
+    @Test
+    void shouldPagePrioritizedTasksByStartTime() {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        for (int i = 4; i >= 0; i--) {
+            manager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                    start.plusHours(i)));
+        }
+        manager.createTask(new Task("No time", "Desc", TaskStatus.NEW));
+
+        List<Task> first = manager.getPrioritizedTasks(null, 0, 2);
+        List<Task> rest = manager.getPrioritizedTasks(first.get(1).getStartTime(), first.get(1).getId(), 10);
+
+        assertEquals(List.of(start, start.plusHours(1)), first.stream().map(Task::getStartTime).toList());
+        assertEquals(List.of(start.plusHours(2), start.plusHours(3), start.plusHours(4)),
+                rest.stream().map(Task::getStartTime).toList());
+    }
+
+    @Test
+    void prioritizedPagesShouldKeepTasksWithSameStart() {
+        LocalDateTime start = LocalDateTime.of(2025, 5, 1, 10, 0);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task("Task " + i, "Desc", TaskStatus.NEW, Duration.ZERO, start);
+            manager.createTask(task);
+            ids.add(task.getId());
+        }
+
+        List<Integer> paged = new ArrayList<>();
+        List<Task> page = manager.getPrioritizedTasks(null, 0, 1);
+        while (!page.isEmpty()) {
+            Task last = page.get(page.size() - 1);
+            paged.add(last.getId());
+            page = manager.getPrioritizedTasks(last.getStartTime(), last.getId(), 1);
+        }
+        assertEquals(ids, paged);
+    }
+
+    @Test
+    void shouldPageHistoryAfterViewedTask() {
+        for (int i = 0; i < 4; i++) {
+            Task task = new Task("Task " + i, "Desc", TaskStatus.NEW);
+            manager.createTask(task);
+            manager.getTaskById(task.getId());
+        }
+        List<Task> history = manager.getHistory();
+
+        assertEquals(history.subList(0, 2), manager.getHistory(null, 0, 2));
+        assertEquals(history.subList(2, 4), manager.getHistory(null, history.get(1).getId(), 5));
+        manager.deleteTask(history.get(1).getId());
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getHistory(null, history.get(1).getId(), 5));
+    }
+
+    @Test
+    void shouldFindEarliestFreeSlots() {
+        manager.createTask(new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 10, 0)));
+        manager.createTask(new Task("Task 2", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 11, 30)));
+        manager.createTask(new Task("Task 3", "desc", TaskStatus.NEW, Duration.ofMinutes(60),
+                LocalDateTime.of(2025, 5, 1, 13, 30)));
+
+        assertEquals(new TimeSlot(LocalDateTime.of(2025, 5, 1, 12, 30), LocalDateTime.of(2025, 5, 1, 13, 30)),
+                manager.findFreeSlot(Duration.ofMinutes(60), LocalDateTime.of(2025, 5, 1, 10, 30), null)
+                        .orElseThrow());
+        assertEquals(List.of(
+                        new TimeSlot(LocalDateTime.of(2025, 5, 1, 11, 0), LocalDateTime.of(2025, 5, 1, 11, 30)),
+                        new TimeSlot(LocalDateTime.of(2025, 5, 1, 12, 30), LocalDateTime.of(2025, 5, 1, 13, 0)),
+                        new TimeSlot(LocalDateTime.of(2025, 5, 1, 14, 30), LocalDateTime.of(2025, 5, 1, 15, 0))),
+                manager.findFreeSlots(Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 10, 0), null, 5));
+        assertTrue(manager.findFreeSlot(Duration.ofMinutes(90), LocalDateTime.of(2025, 5, 1, 10, 0),
+                LocalDateTime.of(2025, 5, 1, 15, 30)).isEmpty());
+    }
+
+    @Test
+    void freeSlotShouldNotOverlapWhenCreated() {
+        manager.createTask(new Task("Task 1", "desc", TaskStatus.NEW, Duration.ofMinutes(45),
+                LocalDateTime.of(2025, 5, 1, 9, 0)));
+        TimeSlot slot = manager.findFreeSlot(Duration.ofMinutes(30), LocalDateTime.of(2025, 5, 1, 9, 0), null)
+                .orElseThrow();
+
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 2", "desc", TaskStatus.NEW,
+                Duration.ofMinutes(30), slot.getStart())));
+    }
+
     @Test
     void getPrioritizedTasksTest() {
         Task task1 = new Task("Task 1", "desc 1", TaskStatus.NEW, Duration.ofMinutes(30),
@@ -434,6 +944,28 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Задачи должны быть отсортированы по времени начала");
     }
 
+    @Test
+    void shouldSelectPrioritizedTasksByType() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Task task = new Task("Task", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 11, 0));
+        Subtask early = new Subtask("Subtask 1", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 9, 0), epic.getId());
+        Subtask late = new Subtask("Subtask 2", "desc", TaskStatus.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 2, 12, 0), epic.getId());
+        manager.createTask(task);
+        manager.createSubtask(early);
+        manager.createSubtask(late);
+
+        assertEquals(List.of(task), manager.getPrioritizedTasks(TaskType.TASK, null, null));
+        assertEquals(List.of(early, late), manager.getPrioritizedTasks(TaskType.SUBTASK, null, null));
+        assertEquals(List.of(late), manager.getPrioritizedTasks(TaskType.SUBTASK,
+                LocalDateTime.of(2025, 5, 2, 10, 0), LocalDateTime.of(2025, 5, 2, 13, 0)));
+        assertTrue(manager.getPrioritizedTasks(TaskType.EPIC, null, null).isEmpty());
+        assertEquals(List.of(early, task, late), manager.getPrioritizedTasks());
+    }
+
     @Test
     void ShouldNotFindDeletedTask() {
         Task task = new Task("Test task", "Test task description", TaskStatus.NEW);
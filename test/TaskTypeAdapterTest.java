@@ -0,0 +1,95 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import server.adapters.DurationTypeAdapter;
+import server.adapters.EpicTypeAdapter;
+import server.adapters.IntHashSetTypeAdapter;
+import server.adapters.LocalDateTimeTypeAdapter;
+import server.adapters.SubtaskTypeAdapter;
+import server.adapters.TaskTypeAdapter;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import tasks.TaskStatus;
+import util.IntHashSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskTypeAdapterTest {
+
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .registerTypeAdapter(IntHashSet.class, new IntHashSetTypeAdapter())
+            .create();
+    private final Gson streaming = reflective.newBuilder()
+            .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+            .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
+            .create();
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Test
+    void shouldWriteSameJsonAsReflectiveGson() {
+        Epic epic = new Epic(1, "Эпик", "Описание", TaskStatus.NEW, Duration.ZERO, null);
+        Subtask first = new Subtask(2, "Первая", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start, 1);
+        Subtask second = new Subtask(3, "Вторая", null, TaskStatus.DONE, Duration.ofMinutes(45),
+                start.plusHours(1), 1);
+        epic.addSubtask(first);
+        epic.addSubtask(second);
+        Task task = new Task(4, "Задача", "Описание", TaskStatus.IN_PROGRESS, null, null);
+
+        for (Object value : List.of(task, epic, first, second, List.of(task, epic, first))) {
+            assertEquals(JsonParser.parseString(reflective.toJson(value)),
+                    JsonParser.parseString(streaming.toJson(value)));
+        }
+    }
+
+    @Test
+    void shouldReadWhatItWrites() {
+        Subtask subtask = new Subtask(5, "Подзадача", "Описание", TaskStatus.IN_PROGRESS, Duration.ofMinutes(90),
+                start.plusSeconds(15), 3);
+
+        Subtask restored = streaming.fromJson(streaming.toJson(subtask), Subtask.class);
+
+        assertEquals(subtask, restored);
+        assertEquals(subtask.getName(), restored.getName());
+        assertEquals(subtask.getDescription(), restored.getDescription());
+        assertEquals(subtask.getStatus(), restored.getStatus());
+        assertEquals(subtask.getDuration(), restored.getDuration());
+        assertEquals(subtask.getStartTime(), restored.getStartTime());
+        assertEquals(subtask.getEpicId(), restored.getEpicId());
+    }
+
+    @Test
+    void shouldSkipUnknownFieldsAndNulls() {
+        Task task = streaming.fromJson("{\"name\":\"Задача\",\"extra\":{\"a\":[1,2]},\"description\":null,"
+                + "\"status\":\"UNKNOWN\",\"duration\":15,\"startTime\":\"2025-01-01T10:00:00\"}", Task.class);
+
+        assertEquals(0, task.getId());
+        assertEquals("Задача", task.getName());
+        assertNull(task.getDescription());
+        assertNull(task.getStatus());
+        assertEquals(Duration.ofMinutes(15), task.getDuration());
+        assertEquals(start, task.getStartTime());
+        assertFalse(streaming.toJson(task).contains("description"));
+    }
+
+    @Test
+    void shouldReadEpicWithoutSubtasks() {
+        Epic epic = streaming.fromJson("{\"id\":7,\"name\":\"Эпик\",\"subtaskIds\":[1,2],"
+                + "\"endTime\":\"2025-01-01T10:00:00\"}", Epic.class);
+
+        assertEquals(7, epic.getId());
+        assertEquals(List.of(), epic.getSubtaskIds());
+        assertEquals(start, epic.getEndTime());
+    }
+}
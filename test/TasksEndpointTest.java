@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -83,4 +84,107 @@ public class TasksEndpointTest extends BaseHttpTest {
         assertEquals(200, response.statusCode());
         assertTrue(taskManager.getTasks().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetTasks_streamsLargeListAsChunkedUtf8() throws Exception {
+        for (int i = 0; i < 2_000; i++) {
+            taskManager.createTask(new Task("Задача №" + i, "Описание", TaskStatus.NEW));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(TASK_URL)).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty(), "Список отдаётся без Content-Length");
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2_000, tasks.length);
+        assertEquals("Задача №1999", tasks[1_999].getName());
+    }
+
+    @Test
+    public void testGetTasks_pagesWithNextCursorHeader() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Task " + i, "Desc", TaskStatus.NEW));
+        }
+
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "?limit=3")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, first.statusCode());
+        assertEquals(3, gson.fromJson(first.body(), Task[].class).length);
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+        assertEquals("3", cursor);
+
+        HttpResponse<String> last = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "?limit=3&after=" + cursor)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Task[] tasks = gson.fromJson(last.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Task 4", tasks[1].getName());
+        assertTrue(last.headers().firstValue("X-Next-Cursor").isEmpty(), "Последняя страница без курсора");
+
+        HttpResponse<String> filtered = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "?limit=3&status=NEW")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, filtered.statusCode());
+    }
+
+    @Test
+    public void testGetTasks_filtersByStatusAndTimeWindow() throws Exception {
+        taskManager.createTask(new Task("Task 1", "Desc", TaskStatus.NEW,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 9, 0)));
+        taskManager.createTask(new Task("Task 2", "Desc", TaskStatus.DONE,
+                Duration.ofMinutes(10), LocalDateTime.of(2024, 1, 1, 10, 0)));
+        taskManager.createTask(new Task("Task 3", "Desc", TaskStatus.NEW));
+
+        HttpResponse<String> byStatus = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "?status=new")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, byStatus.statusCode());
+        assertEquals(2, gson.fromJson(byStatus.body(), Task[].class).length);
+
+        HttpResponse<String> byWindow = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(TASK_URL + "?from=2024-01-01T09:30&to=2024-01-01T11:00")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Task[] tasks = gson.fromJson(byWindow.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Task 2", tasks[0].getName());
+    }
+
+    @Test
+    public void testGetTasks_rejectsUnsupportedQuery() throws Exception {
+        for (String query : List.of("?type=task", "?epic=1", "?statu=new", "?status=unknown",
+                "?from=2024-01-02T00:00&to=2024-01-01T00:00")) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(TASK_URL + query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+
+    @Test
+    public void testGetTasks_answers304WhenETagMatches() throws Exception {
+        taskManager.createTask(new Task("Task", "Desc", TaskStatus.NEW));
+
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder().uri(URI.create(TASK_URL)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), "Слабый ETag");
+
+        HttpResponse<String> unchanged = client.send(HttpRequest.newBuilder().uri(URI.create(TASK_URL))
+                .header("If-None-Match", etag).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+
+        taskManager.createTask(new Task("Another", "Desc", TaskStatus.NEW));
+        HttpResponse<String> changed = client.send(HttpRequest.newBuilder().uri(URI.create(TASK_URL))
+                .header("If-None-Match", etag).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode());
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+
+        String taskEtag = client.send(HttpRequest.newBuilder().uri(URI.create(TASK_URL + "/1")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").orElseThrow();
+        HttpResponse<String> task = client.send(HttpRequest.newBuilder().uri(URI.create(TASK_URL + "/1"))
+                .header("If-None-Match", "\"other\", " + taskEtag).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, task.statusCode());
+    }
+}
@@ -0,0 +1,113 @@
+import manager.ViewFrequencyTracker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewFrequencyTrackerTest {
+
+    @Test
+    void shouldFindHotTasksAmongManyColdOnes() {
+        ViewFrequencyTracker tracker = new ViewFrequencyTracker(10, null);
+        Random random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            if (i % 4 == 0) {
+                tracker.record(1 + random.nextInt(3));
+            } else {
+                tracker.record(1_000 + random.nextInt(100_000));
+            }
+        }
+
+        List<ViewFrequencyTracker.ViewCount> top = tracker.top(3);
+        assertEquals(3, top.size());
+        assertEquals(List.of(1, 2, 3), top.stream().map(ViewFrequencyTracker.ViewCount::getTaskId).sorted().toList());
+        for (ViewFrequencyTracker.ViewCount count : top) {
+            assertTrue(count.getViews() >= 16_000, "Оценка count-min не бывает меньше истинного числа");
+        }
+    }
+
+    @Test
+    void decayShouldFavourRecentViews() {
+        MutableClock clock = new MutableClock();
+        ViewFrequencyTracker tracker = new ViewFrequencyTracker(10, Duration.ofMinutes(1), clock);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1);
+        }
+        clock.advance(Duration.ofMinutes(5));
+        for (int i = 0; i < 10; i++) {
+            tracker.record(2);
+        }
+
+        List<ViewFrequencyTracker.ViewCount> top = tracker.top(2);
+        assertEquals(2, top.get(0).getTaskId());
+        assertEquals(10, top.get(0).getViews(), 1e-9);
+        assertEquals(100 / 32.0, top.get(1).getViews(), 1e-9);
+    }
+
+    @Test
+    void countsShouldSurviveRescaling() {
+        MutableClock clock = new MutableClock();
+        ViewFrequencyTracker tracker = new ViewFrequencyTracker(10, Duration.ofSeconds(1), clock);
+        tracker.record(1);
+        clock.advance(Duration.ofSeconds(400));
+        tracker.record(2);
+        tracker.record(2);
+
+        List<ViewFrequencyTracker.ViewCount> top = tracker.top(2);
+        assertEquals(2, top.get(0).getTaskId());
+        assertEquals(2, top.get(0).getViews(), 1e-9);
+    }
+
+    @Test
+    void removedTaskShouldFreeItsPlaceInTop() {
+        ViewFrequencyTracker tracker = new ViewFrequencyTracker(2, null);
+        for (int i = 0; i < 10; i++) {
+            tracker.record(1);
+            tracker.record(2);
+        }
+        tracker.remove(1);
+        tracker.remove(42);
+        tracker.record(3);
+
+        List<ViewFrequencyTracker.ViewCount> top = tracker.top(2);
+        assertEquals(List.of(2, 3), top.stream().map(ViewFrequencyTracker.ViewCount::getTaskId).toList());
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ViewFrequencyTracker(0, null));
+        assertThrows(IllegalArgumentException.class, () -> new ViewFrequencyTracker(10, Duration.ZERO));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}